@@ -0,0 +1,151 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * DataSource setup: workload bulkheads on the primary, plus an optional read replica.
+ * <p>
+ * The primary database ({@code spring.datasource.*}) is reached through one Hikari pool per
+ * {@link WorkloadType}, each sized and timed out independently via
+ * {@code app.datasource.workload.<storefront|checkout|reporting>.*} (any Hikari setting, e.g.
+ * maximum-pool-size, connection-timeout, connection-init-sql, plus query-timeout-seconds).
+ * <p>
+ * When {@code app.datasource.replica.url} is set, read-only transactions go to a replica pool
+ * configured from {@code app.datasource.replica.*} (same keys as spring.datasource, hikari.*).
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    PoolWaitMetrics poolWaitMetrics() {
+        return new PoolWaitMetrics();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.workload.storefront")
+    HikariDataSource storefrontPool(@Qualifier("primaryDataSourceProperties") DataSourceProperties properties,
+                                    PoolWaitMetrics metrics) {
+        return workloadPool(properties, metrics, WorkloadType.STOREFRONT, 10, 30_000);
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.workload.checkout")
+    HikariDataSource checkoutPool(@Qualifier("primaryDataSourceProperties") DataSourceProperties properties,
+                                  PoolWaitMetrics metrics) {
+        return workloadPool(properties, metrics, WorkloadType.CHECKOUT, 5, 30_000);
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.workload.reporting")
+    HikariDataSource reportingPool(@Qualifier("primaryDataSourceProperties") DataSourceProperties properties,
+                                   PoolWaitMetrics metrics) {
+        // Reports may wait less for a connection: failing fast beats piling up admin requests
+        return workloadPool(properties, metrics, WorkloadType.REPORTING, 3, 10_000);
+    }
+
+    /**
+     * The primary database: routes each connection request to the current workload's pool.
+     */
+    @Bean
+    WorkloadRoutingDataSource primaryDataSource(@Qualifier("storefrontPool") DataSource storefront,
+                                                @Qualifier("checkoutPool") DataSource checkout,
+                                                @Qualifier("reportingPool") DataSource reporting) {
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(Map.of(
+                WorkloadType.STOREFRONT, storefront,
+                WorkloadType.CHECKOUT, checkout,
+                WorkloadType.REPORTING, reporting));
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.url")
+    @ConfigurationProperties("app.datasource.replica")
+    DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.url")
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties properties,
+                                       PoolWaitMetrics metrics) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        dataSource.setMetricsTrackerFactory(metrics);
+        return dataSource;
+    }
+
+    /**
+     * @param maxLagMillis replica lag above which reads fall back to the primary
+     *                     ({@code app.datasource.replica.max-lag-ms}, default 3000)
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.url")
+    ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                        @Qualifier("replicaDataSource") DataSource replica,
+                                        @Value("${app.datasource.replica.max-lag-ms:3000}") long maxLagMillis) {
+        return new ReplicaLagMonitor(primary, replica, maxLagMillis);
+    }
+
+    /**
+     * The DataSource used by JPA and everything else.
+     * <p>
+     * The lazy proxy defers taking a physical connection until the first statement, when the
+     * transaction's read-only flag and the request's workload are both known. Statements get
+     * the statement timeout of the current workload.
+     */
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica,
+                          ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                          @Value("${app.datasource.workload.storefront.query-timeout-seconds:10}") int storefrontTimeout,
+                          @Value("${app.datasource.workload.checkout.query-timeout-seconds:15}") int checkoutTimeout,
+                          @Value("${app.datasource.workload.reporting.query-timeout-seconds:30}") int reportingTimeout) {
+        DataSource target = primary;
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        if (monitor != null) {
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica.getObject(), monitor);
+            routing.afterPropertiesSet();
+            target = routing;
+        }
+
+        DataSource timed = new QueryTimeoutDataSource(target, Map.of(
+                WorkloadType.STOREFRONT, storefrontTimeout,
+                WorkloadType.CHECKOUT, checkoutTimeout,
+                WorkloadType.REPORTING, reportingTimeout));
+        return new LazyConnectionDataSourceProxy(timed);
+    }
+
+    private static HikariDataSource workloadPool(DataSourceProperties properties, PoolWaitMetrics metrics,
+                                                 WorkloadType type, int poolSize, long connectionTimeoutMillis) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(type.name().toLowerCase());
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setConnectionTimeout(connectionTimeoutMillis);
+        dataSource.setMetricsTrackerFactory(metrics);
+        return dataSource;
+    }
+}
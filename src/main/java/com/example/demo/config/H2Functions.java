@@ -0,0 +1,43 @@
+package com.example.demo.config;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * MySQL functions used by the repositories that H2 lacks, registered as H2 aliases by
+ * {@link LocalReplicaSync} in the {@code replica-local} profile.
+ */
+public final class H2Functions {
+
+    private H2Functions() {
+    }
+
+    /**
+     * MySQL {@code DATE_FORMAT} for the specifiers the reports use ({@code %Y %m %d %H %i %s}).
+     */
+    public static String dateFormat(Timestamp value, String format) {
+        if (value == null || format == null) {
+            return null;
+        }
+        LocalDateTime time = value.toLocalDateTime();
+        StringBuilder out = new StringBuilder(format.length() + 8);
+        for (int i = 0; i < format.length(); i++) {
+            char c = format.charAt(i);
+            if (c != '%' || i + 1 == format.length()) {
+                out.append(c);
+                continue;
+            }
+            char specifier = format.charAt(++i);
+            switch (specifier) {
+                case 'Y' -> out.append(String.format("%04d", time.getYear()));
+                case 'm' -> out.append(String.format("%02d", time.getMonthValue()));
+                case 'd' -> out.append(String.format("%02d", time.getDayOfMonth()));
+                case 'H' -> out.append(String.format("%02d", time.getHour()));
+                case 'i' -> out.append(String.format("%02d", time.getMinute()));
+                case 's' -> out.append(String.format("%02d", time.getSecond()));
+                default -> out.append(specifier);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Stand-in for MySQL replication in the {@code replica-local} profile, where primary and
+ * replica are two connection pools on one embedded H2 database: the primary uses schema
+ * {@code public}, the replica schema {@value #LIVE}.
+ * <p>
+ * Every {@code app.datasource.replica.local-sync-ms} the tables of the primary are copied into
+ * a new schema while the replica keeps serving the previous copy, so the replica is always
+ * somewhat behind. The copy then replaces the live schema by two renames. During the swap
+ * new reads go to the primary and the swap waits for the replica's open transactions, so no
+ * read ever sees a missing or half-filled table. Raising the interval above
+ * {@code app.datasource.replica.max-lag-ms} exercises the lag fallback.
+ * <p>
+ * Also registers {@link H2Functions} as aliases in every schema, since H2 lacks them.
+ */
+@Component
+@Profile("replica-local")
+public class LocalReplicaSync {
+
+    /** Schema read by the replica pool (its connection URL sets {@code SCHEMA=live}). */
+    static final String LIVE = "live";
+    private static final String NEXT = "live_next";
+    private static final String OLD = "live_old";
+
+    /** Longest wait for the replica's open transactions before a swap is skipped. */
+    private static final long DRAIN_TIMEOUT_MILLIS = 5000;
+
+    private final JdbcTemplate primary;
+    private final HikariDataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+
+    public LocalReplicaSync(@Qualifier("primaryDataSource") DataSource primary,
+                            @Qualifier("replicaDataSource") HikariDataSource replica,
+                            ReplicaLagMonitor lagMonitor) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        createFunctions("public");
+        // Must exist before the replica pool opens its first connection
+        this.primary.execute("CREATE SCHEMA IF NOT EXISTS " + LIVE);
+        createFunctions(LIVE);
+    }
+
+    /**
+     * Copies the primary's tables into a fresh schema and swaps it in as the replica.
+     */
+    @Scheduled(initialDelayString = "${app.datasource.replica.local-sync-ms:2000}",
+            fixedDelayString = "${app.datasource.replica.local-sync-ms:2000}")
+    public synchronized void sync() {
+        primary.execute("DROP SCHEMA IF EXISTS " + NEXT + " CASCADE");
+        primary.execute("DROP SCHEMA IF EXISTS " + OLD + " CASCADE");
+        primary.execute("CREATE SCHEMA " + NEXT);
+        createFunctions(NEXT);
+        for (String table : primary.queryForList("SELECT table_name FROM information_schema.tables " +
+                "WHERE table_schema = 'public' AND table_type = 'BASE TABLE'", String.class)) {
+            primary.execute("CREATE TABLE " + NEXT + ".\"" + table + "\" AS SELECT * FROM public.\"" + table + "\"");
+        }
+
+        lagMonitor.setSuspended(true);
+        try {
+            if (!awaitReplicaIdle()) {
+                System.out.println("⚠️ Replica still busy after " + DRAIN_TIMEOUT_MILLIS + " ms, skipping this sync.");
+                return;
+            }
+            primary.execute("ALTER SCHEMA " + LIVE + " RENAME TO " + OLD);
+            primary.execute("ALTER SCHEMA " + NEXT + " RENAME TO " + LIVE);
+        } finally {
+            lagMonitor.setSuspended(false);
+        }
+        primary.execute("DROP SCHEMA " + OLD + " CASCADE");
+    }
+
+    /**
+     * Waits until no connection of the replica pool is in use, i.e. no read-only transaction
+     * that was routed to the replica before the suspension is still running.
+     */
+    private boolean awaitReplicaIdle() {
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        int idleChecks = 0;
+        // Two checks in a row: a transaction routed just before the suspension may not hold its connection yet
+        while (idleChecks < 2) {
+            HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+            if (pool == null || pool.getActiveConnections() == 0) {
+                idleChecks++;
+            } else if (System.currentTimeMillis() > deadline) {
+                return false;
+            } else {
+                idleChecks = 0;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void createFunctions(String schema) {
+        primary.execute("CREATE ALIAS IF NOT EXISTS " + schema + ".DATE_FORMAT FOR '"
+                + H2Functions.class.getName() + ".dateFormat'");
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Applies the statement timeout of the current {@link WorkloadType} to every statement.
+ * <p>
+ * Uses {@link Statement#setQueryTimeout(int)}, so the JDBC driver cancels a statement that runs
+ * too long (MySQL Connector/J issues KILL QUERY) instead of the request holding its connection.
+ * A timeout set later by Hibernate (e.g. from a transaction timeout) takes precedence.
+ */
+public class QueryTimeoutDataSource extends DelegatingDataSource {
+
+    private final Map<WorkloadType, Integer> timeoutSeconds;
+
+    /**
+     * @param target         the DataSource to wrap
+     * @param timeoutSeconds statement timeout per workload in seconds (0 or missing = none)
+     */
+    public QueryTimeoutDataSource(DataSource target, Map<WorkloadType, Integer> timeoutSeconds) {
+        super(target);
+        this.timeoutSeconds = Map.copyOf(timeoutSeconds);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return withTimeout(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return withTimeout(super.getConnection(username, password));
+    }
+
+    private Connection withTimeout(Connection connection) {
+        int seconds = timeoutSeconds.getOrDefault(WorkloadContext.current(), 0);
+        if (seconds <= 0) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                    if (result instanceof Statement statement) {
+                        statement.setQueryTimeout(seconds);
+                    }
+                    return result;
+                });
+    }
+}
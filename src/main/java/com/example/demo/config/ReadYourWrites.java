@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+/**
+ * Holds, for the current request thread, whether reads must stay on the primary database.
+ * <p>
+ * Set by {@link ReadYourWritesInterceptor} for a short window after the same session wrote
+ * something (e.g. a checkout), so the follow-up pages never show replica-stale data
+ * to the user who just made the change. Read by {@link ReplicaRoutingDataSource}.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Forces (or stops forcing) reads on this thread to the primary.
+     */
+    public static void pinToPrimary(boolean pinned) {
+        if (pinned) {
+            PINNED.set(Boolean.TRUE);
+        } else {
+            PINNED.remove();
+        }
+    }
+
+    /**
+     * @return true if reads on this thread must go to the primary
+     */
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+}
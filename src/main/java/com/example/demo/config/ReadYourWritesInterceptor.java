@@ -0,0 +1,63 @@
+package com.example.demo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Gives each session read-your-writes consistency when read-only transactions go to a replica.
+ * <p>
+ * Any state-changing request (POST, PUT, DELETE...) stamps the session; for the next
+ * {@code app.datasource.replica.sticky-ms} milliseconds every request of that session
+ * reads from the primary. This covers the redirect after checkout, order status updates, etc.
+ * <p>
+ * The pin is reset at the start of every request and cleared when it completes or goes async,
+ * so it never carries over to the next request served by the same thread.
+ */
+@Component
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    /** Session attribute holding the time (epoch millis) until which reads stay on the primary. */
+    static final String PRIMARY_UNTIL = "readYourWrites.primaryUntil";
+
+    private final long stickyMillis;
+
+    /**
+     * @param stickyMillis how long a session reads from the primary after a write
+     *                     ({@code app.datasource.replica.sticky-ms}, default 10000)
+     */
+    public ReadYourWritesInterceptor(@Value("${app.datasource.replica.sticky-ms:10000}") long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadYourWrites.pinToPrimary(false);
+        HttpSession session = request.getSession(false);
+        if (session == null) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            session.setAttribute(PRIMARY_UNTIL, now + stickyMillis);
+        }
+
+        Object until = session.getAttribute(PRIMARY_UNTIL);
+        ReadYourWrites.pinToPrimary(until instanceof Long millis && millis > now);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ReadYourWrites.pinToPrimary(false);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadYourWrites.pinToPrimary(false);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Measures replica lag with a heartbeat row and decides whether reads may use the replica.
+ * <p>
+ * Every {@code app.datasource.replica.heartbeat-ms} the current time is written to
+ * {@code replica_heartbeat} on the primary and read back from the replica; the difference
+ * is the replication lag. While the lag exceeds {@code app.datasource.replica.max-lag-ms},
+ * or the replica cannot be reached, all reads fall back to the primary. Reads also fall back
+ * while the replica is {@linkplain #setSuspended suspended}.
+ */
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+
+    private volatile boolean usable;
+    private volatile boolean suspended;
+    private volatile long lastLagMillis = -1;
+    private boolean tableCreated;
+
+    /**
+     * @param primary      the read-write database (heartbeat writes)
+     * @param replica      the read-only replica (heartbeat reads)
+     * @param maxLagMillis the largest lag at which the replica still serves reads
+     */
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    /**
+     * Writes a heartbeat to the primary and checks how far behind the replica is.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.heartbeat-ms:1000}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        try {
+            writeHeartbeat(now);
+        } catch (RuntimeException ex) {
+            // Primary problems are not ours to handle; keep the last replica verdict
+            return;
+        }
+
+        boolean nowUsable;
+        try {
+            List<Long> beats = replica.queryForList("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+            lastLagMillis = beats.isEmpty() ? -1 : now - beats.get(0);
+            nowUsable = !beats.isEmpty() && lastLagMillis <= maxLagMillis;
+        } catch (RuntimeException ex) {
+            // Replica down or schema not replicated yet
+            lastLagMillis = -1;
+            nowUsable = false;
+        }
+
+        if (nowUsable != usable) {
+            System.out.println(nowUsable
+                    ? "✅ Replica caught up, read-only transactions use the replica."
+                    : "⚠️ Replica unavailable or lagging (" + lastLagMillis + " ms), reads fall back to the primary.");
+        }
+        usable = nowUsable;
+    }
+
+    /**
+     * @return true if the replica is reachable, within the allowed lag and not suspended
+     */
+    public boolean isReplicaUsable() {
+        return usable && !suspended;
+    }
+
+    /**
+     * Stops (or resumes) sending new read-only transactions to the replica, whatever its lag.
+     */
+    public void setSuspended(boolean suspended) {
+        this.suspended = suspended;
+    }
+
+    private void writeHeartbeat(long now) {
+        if (!tableCreated) {
+            primary.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+            tableCreated = true;
+        }
+        if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now) == 0) {
+            primary.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", now);
+        }
+    }
+}
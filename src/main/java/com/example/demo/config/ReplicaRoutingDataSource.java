@@ -0,0 +1,43 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to the replica and everything else to the primary.
+ * <p>
+ * Reads still go to the primary when the replica is unhealthy or lagging
+ * ({@link ReplicaLagMonitor}) or when the current session just wrote ({@link ReadYourWrites}).
+ * Must be wrapped in a {@code LazyConnectionDataSourceProxy} so the lookup happens after
+ * the transaction's read-only flag has been set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    /**
+     * @param primary    the read-write database
+     * @param replica    the read-only replica
+     * @param lagMonitor decides whether the replica is fresh enough to serve reads
+     */
+    public ReplicaRoutingDataSource(Object primary, Object replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        if (readOnly && !ReadYourWrites.isPinned() && lagMonitor.isReplicaUsable()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.config;
+
+import com.example.demo.repository.ConversationRepository;
+import com.example.demo.repository.MessageEntryRepository;
+import com.example.demo.repository.PurchaseRepository;
+import com.example.demo.service.CustomerCardinalityService;
+import com.example.demo.service.ProductSalesRollupService;
+import com.example.demo.service.RevenueRollupService;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class responsible for (re)building the analytics rollup tables
+ * and the stored conversation unread counters when the application starts.
+ *
+ * The rollups are rebuilt when the application is started with
+ * {@code --rebuild-rollups}, or automatically when a rollup is still empty
+ * while purchases already exist (e.g. first start after upgrading).
+ */
+@Configuration
+public class RollupLoader {
+
+    /** Command-line option that forces a full rebuild of the rollups. */
+    public static final String REBUILD_OPTION = "rebuild-rollups";
+
+    /**
+     * Defines an ApplicationRunner bean that runs on application startup.
+     *
+     * @param revenueRollupService       service that maintains the revenue_daily rollup
+     * @param productSalesRollupService  service that maintains the product_sales_daily rollup
+     * @param customerCardinalityService service that maintains the distinct-customer sketches
+     * @param purchaseRepository         repository used to detect existing purchases
+     * @param conversationRepository     repository holding the per-conversation unread counters
+     * @param messageEntryRepository     repository used to check the unread counters
+     * @return an ApplicationRunner that rebuilds the rollups when needed
+     */
+    @Bean
+    ApplicationRunner rebuildRollups(RevenueRollupService revenueRollupService,
+                                     ProductSalesRollupService productSalesRollupService,
+                                     CustomerCardinalityService customerCardinalityService,
+                                     PurchaseRepository purchaseRepository,
+                                     ConversationRepository conversationRepository,
+                                     MessageEntryRepository messageEntryRepository) {
+        return args -> {
+            boolean forced = args.containsOption(REBUILD_OPTION);
+            boolean hasPurchases = purchaseRepository.count() > 0;
+
+            if (forced || (revenueRollupService.isEmpty() && hasPurchases)) {
+                int rows = revenueRollupService.rebuild();
+                // Confirmation message in the console
+                System.out.println("✅ revenue_daily rebuilt (" + rows + " rows).");
+            }
+
+            if (forced || (productSalesRollupService.isEmpty() && hasPurchases)) {
+                int rows = productSalesRollupService.rebuild();
+                System.out.println("✅ product_sales_daily rebuilt (" + rows + " rows).");
+            }
+
+            if (forced || (customerCardinalityService.isEmpty() && hasPurchases)) {
+                int sketches = customerCardinalityService.backfill();
+                System.out.println("✅ customer sketches backfilled (" + sketches + " sketches).");
+            }
+
+            // Also covers the first start after the unread_by_admin or admin_read_message_id column was added
+            if (forced || conversationRepository.sumUnreadByAdmin()
+                    != messageEntryRepository.countUnreadByAdmin()) {
+                int seeded = conversationRepository.seedAdminReadWatermarks();
+                System.out.println("✅ conversation read watermarks seeded (" + seeded + " rows).");
+                int rows = conversationRepository.repairUnreadByAdmin();
+                System.out.println("✅ conversation unread counters repaired (" + rows + " rows).");
+            }
+        };
+    }
+}
@@ -1,15 +1,26 @@
 package com.example.demo.config;        // ← keep the package line you already have
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
- * Web MVC configuration class for simple, non-controller-based view redirections.
+ * Web MVC configuration class for simple, non-controller-based view redirections
+ * and request interceptors.
  */
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private final ReadYourWritesInterceptor readYourWritesInterceptor;
+    private final WorkloadInterceptor workloadInterceptor;
+
+    public WebMvcConfig(ReadYourWritesInterceptor readYourWritesInterceptor,
+                        WorkloadInterceptor workloadInterceptor) {
+        this.readYourWritesInterceptor = readYourWritesInterceptor;
+        this.workloadInterceptor = workloadInterceptor;
+    }
+
     /**
      * This method adds view controllers for simple URL-to-URL redirects.
      *
@@ -20,4 +31,15 @@ public class WebMvcConfig implements WebMvcConfigurer {
     public void addViewControllers(ViewControllerRegistry registry) {
         registry.addRedirectViewController("/", "/products");
     }
+
+    /**
+     * Registers the interceptors that pick the database connection for each request:
+     * the workload pool (storefront / checkout / reporting), and primary vs. replica
+     * for a short while after the session wrote something.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(workloadInterceptor);
+        registry.addInterceptor(readYourWritesInterceptor);
+    }
 }
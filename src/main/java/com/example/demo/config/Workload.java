@@ -0,0 +1,18 @@
+package com.example.demo.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the connection pool used by a controller method, a whole controller,
+ * or every controller of a package (via package-info.java).
+ * The most specific annotation wins; unannotated handlers run as {@link WorkloadType#STOREFRONT}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE, ElementType.PACKAGE})
+public @interface Workload {
+
+    WorkloadType value();
+}
@@ -0,0 +1,58 @@
+package com.example.demo.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the {@link WorkloadType} of the current thread, read whenever a connection is taken.
+ * Set per request by {@link WorkloadInterceptor}; background jobs use {@link #callAs}.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadType> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    /**
+     * @return the workload of this thread ({@link WorkloadType#STOREFRONT} when none is set)
+     */
+    public static WorkloadType current() {
+        WorkloadType type = CURRENT.get();
+        return type != null ? type : WorkloadType.STOREFRONT;
+    }
+
+    static void set(WorkloadType type) {
+        CURRENT.set(type);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Runs a task under the given workload and restores the previous one afterwards.
+     */
+    public static <T> T callAs(WorkloadType type, Supplier<T> task) {
+        WorkloadType previous = CURRENT.get();
+        CURRENT.set(type);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs a task under the given workload and restores the previous one afterwards.
+     */
+    public static void runAs(WorkloadType type, Runnable task) {
+        callAs(type, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
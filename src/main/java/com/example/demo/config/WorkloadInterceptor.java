@@ -0,0 +1,50 @@
+package com.example.demo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Sets the {@link WorkloadContext} of each request from the handler's {@link Workload} annotation
+ * (method, then controller class, then package).
+ * <p>
+ * The context is cleared when the request completes, and also when the handler goes async
+ * (e.g. SSE streams): {@code afterCompletion} does not run on that thread then, which is
+ * returned to the pool for the next request.
+ */
+@Component
+public class WorkloadInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        WorkloadContext.clear();
+        if (handler instanceof HandlerMethod method) {
+            WorkloadContext.set(resolve(method));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        WorkloadContext.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        WorkloadContext.clear();
+    }
+
+    private static WorkloadType resolve(HandlerMethod method) {
+        Workload workload = AnnotatedElementUtils.findMergedAnnotation(method.getMethod(), Workload.class);
+        if (workload == null) {
+            workload = AnnotatedElementUtils.findMergedAnnotation(method.getBeanType(), Workload.class);
+        }
+        if (workload == null) {
+            workload = method.getBeanType().getPackage().getAnnotation(Workload.class);
+        }
+        return workload != null ? workload.value() : WorkloadType.STOREFRONT;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool of the current {@link WorkloadType}, so a burst of slow
+ * admin reports can only exhaust the reporting pool and never starve storefront or checkout requests.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * @param pools one DataSource per workload (every workload must be present)
+     */
+    public WorkloadRoutingDataSource(Map<WorkloadType, ?> pools) {
+        setTargetDataSources(Map.copyOf(pools));
+        setDefaultTargetDataSource(pools.get(WorkloadType.STOREFRONT));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return WorkloadContext.current();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.config;
+
+/**
+ * Workload classes that get their own connection pool (bulkhead) and statement timeout.
+ */
+public enum WorkloadType {
+
+    /** Catalog, cart and account pages: many short reads. Also the default. */
+    STOREFRONT,
+
+    /** Checkout writes, kept free even when everything else is saturated. */
+    CHECKOUT,
+
+    /** Admin analytics and listings: few, slow queries. */
+    REPORTING
+}
@@ -1,11 +1,17 @@
 package com.example.demo.controller;
 
-import com.example.demo.dto.Stats;
+import com.example.demo.config.PoolWaitMetrics;
+import com.example.demo.config.Workload;
+import com.example.demo.config.WorkloadType;
 import com.example.demo.model.Account;
 import com.example.demo.model.Purchase;
 import com.example.demo.model.StatusType;
 import com.example.demo.repository.*;
 
+import com.example.demo.service.AccountSearchIndex;
+import com.example.demo.service.AnalyticsQueryCache;
+import com.example.demo.service.CustomerCardinalityService;
+import com.example.demo.service.DashboardMetrics;
 import com.example.demo.service.ProductService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -13,90 +19,157 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.format.annotation.DateTimeFormat;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import com.example.demo.dto.DailyRevenueDTO;
 import com.example.demo.service.PurchaseService;
+import com.example.demo.service.TopProductsSketch;
+import com.example.demo.service.SseDispatcher;
+import com.example.demo.service.UnreadCounterService;
+import com.example.demo.util.TrigramIndex;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 
 
 /**
  * Admin controller for managing dashboard, users, orders, analytics, and messages.
+ * Runs on the reporting connection pool so slow admin queries cannot starve the storefront.
  */
 @Controller
 @RequestMapping("/admin")
+@Workload(WorkloadType.REPORTING)
 public class AdminDashboardController {
 
+    /** Number of users shown per page on /admin/users. */
+    private static final int USERS_PAGE_SIZE = 50;
+
     private final ProductRepository productRepository;
     private final AccountRepository accountRepository;
-    private final MessageRepository messageRepository;
     private final PurchaseRepository purchaseRepository;
     private final StatusTypeRepository statusTypeRepository;
     private final ProductService productService;
     private final PurchaseService purchaseService;
-
+    private final DashboardMetrics dashboardMetrics;
+    private final AnalyticsQueryCache analyticsQueryCache;
+    private final TopProductsSketch topProductsSketch;
+    private final CustomerCardinalityService customerCardinalityService;
+    private final PoolWaitMetrics poolWaitMetrics;
+    private final AccountSearchIndex accountSearchIndex;
+    private final UnreadCounterService unreadCounterService;
+    private final SseDispatcher sseDispatcher;
 
     // Constructor injection for all required services and repositories
     public AdminDashboardController(ProductRepository productRepository,
                                     AccountRepository accountRepository,
-                                    MessageRepository messageRepository,
                                     PurchaseRepository purchaseRepository,
                                     StatusTypeRepository statusTypeRepository,
                                     ProductService productService ,
-                                    PurchaseService purchaseService) {
+                                    PurchaseService purchaseService,
+                                    DashboardMetrics dashboardMetrics,
+                                    AnalyticsQueryCache analyticsQueryCache,
+                                    TopProductsSketch topProductsSketch,
+                                    CustomerCardinalityService customerCardinalityService,
+                                    PoolWaitMetrics poolWaitMetrics,
+                                    AccountSearchIndex accountSearchIndex,
+                                    UnreadCounterService unreadCounterService,
+                                    SseDispatcher sseDispatcher) {
         this.productRepository = productRepository;
         this.accountRepository = accountRepository;
-        this.messageRepository = messageRepository;
         this.purchaseRepository = purchaseRepository;
         this.statusTypeRepository = statusTypeRepository;
         this.productService = productService;
         this.purchaseService = purchaseService;
+        this.dashboardMetrics = dashboardMetrics;
+        this.analyticsQueryCache = analyticsQueryCache;
+        this.topProductsSketch = topProductsSketch;
+        this.customerCardinalityService = customerCardinalityService;
+        this.poolWaitMetrics = poolWaitMetrics;
+        this.accountSearchIndex = accountSearchIndex;
+        this.unreadCounterService = unreadCounterService;
+        this.sseDispatcher = sseDispatcher;
 
     }
 
     /**
      * Displays the main admin dashboard with basic statistics.
+     * Counters come from the in-memory metrics registry, so no count queries run here.
+     * Unique customer counts are HyperLogLog estimates (about 2% error).
      */
     @GetMapping
     public String dashboard(Model model) {
-        long productCount = productRepository.count();
-        long userCount = accountRepository.count();
-        long orderCount = purchaseRepository.count();
-
-        model.addAttribute("stats", new Stats(productCount, orderCount, userCount));
+        LocalDate today = LocalDate.now();
+        model.addAttribute("stats", dashboardMetrics.snapshot());
+        model.addAttribute("uniqueCustomersToday", customerCardinalityService.uniqueCustomers(today, today));
+        model.addAttribute("uniqueCustomersWeek", customerCardinalityService.uniqueCustomers(today.minusDays(7), today));
+        model.addAttribute("uniqueCustomersMonth", customerCardinalityService.uniqueCustomers(today.withDayOfMonth(1), today));
         return "admin/dashboard";
     }
 
     /**
-     * Displays a list of all users, with optional filtering by email and username.
+     * Displays a page of users, with optional filtering by email and username substrings.
+     * Filtered lookups use the in-memory trigram index (ranked: exact, prefix, then substring
+     * matches); the database is only queried for the accounts on the requested page.
      */
     @GetMapping("/users")
     public String listUsers(@RequestParam(value = "email", required = false) String email,
                             @RequestParam(value = "username", required = false) String username,
+                            @RequestParam(value = "page", defaultValue = "0") int page,
                             Model model) {
-        List<Account> users = accountRepository.findAll();
-
-        if (email != null && !email.isBlank()) {
-            users.removeIf(u -> u.getEmail() == null || !u.getEmail().toLowerCase().contains(email.toLowerCase()));
-        }
-
-        if (username != null && !username.isBlank()) {
-            users.removeIf(u -> u.getUsername() == null || !u.getUsername().toLowerCase().contains(username.toLowerCase()));
+        page = Math.max(page, 0);
+        boolean filtered = (email != null && !email.isBlank()) || (username != null && !username.isBlank());
+
+        List<Account> users;
+        long total;
+        if (!filtered) {
+            Page<Account> result = accountRepository.findAll(PageRequest.of(page, USERS_PAGE_SIZE, Sort.by("id")));
+            users = result.getContent();
+            total = result.getTotalElements();
+        } else if (accountSearchIndex.isReady()) {
+            TrigramIndex.Page result = accountSearchIndex.search(username, email, page, USERS_PAGE_SIZE);
+            Map<Long, Account> byId = accountRepository.findAllById(result.ids()).stream()
+                    .collect(Collectors.toMap(Account::getId, a -> a));
+            // Keep the ranking order of the index
+            users = result.ids().stream().map(byId::get).filter(Objects::nonNull).toList();
+            total = result.total();
+        } else {
+            // Index still building: slower database search
+            Page<Account> result = accountRepository.findByUsernameContainingIgnoreCaseAndEmailContainingIgnoreCase(
+                    username == null ? "" : username, email == null ? "" : email,
+                    PageRequest.of(page, USERS_PAGE_SIZE, Sort.by("username")));
+            users = result.getContent();
+            total = result.getTotalElements();
         }
 
         model.addAttribute("users", users);
         model.addAttribute("email", email);
         model.addAttribute("username", username);
+        model.addAttribute("page", page);
+        model.addAttribute("pageSize", USERS_PAGE_SIZE);
+        model.addAttribute("totalUsers", total);
+        model.addAttribute("totalPages", (total + USERS_PAGE_SIZE - 1) / USERS_PAGE_SIZE);
         return "admin/users";
     }
 
     /**
      * Provides the number of unread messages to be used globally in the navbar.
+     * Read from the in-memory counters, so no count query runs per request.
      */
     @ModelAttribute("unreadMessageCount")
     public long getUnreadMessageCount() {
-        return messageRepository.countByAnsweredFalse();
+        return unreadCounterService.unansweredMessages();
+    }
+
+    /**
+     * Provides the number of user chat messages no admin has read yet (navbar badge).
+     */
+    @ModelAttribute("unreadChatCount")
+    public long getUnreadChatCount() {
+        return unreadCounterService.unreadChatMessages();
     }
 
     /**
@@ -129,7 +202,7 @@ public class AdminDashboardController {
      */
     @GetMapping("/orders/{id}")
     public String viewOrderDetails(@PathVariable Long id, Model model) {
-        Optional<Purchase> optional = purchaseRepository.findById(id);
+        Optional<Purchase> optional = purchaseRepository.findWithLineItemsById(id);
         if (optional.isEmpty()) return "redirect:/admin/orders";
 
         Purchase order = optional.get();
@@ -150,13 +223,7 @@ public class AdminDashboardController {
     public String updateOrderStatus(@RequestParam Long orderId,
                                     @RequestParam Long statusId,
                                     RedirectAttributes redirectAttributes) {
-        Optional<Purchase> purchaseOpt = purchaseRepository.findById(orderId);
-        Optional<StatusType> statusOpt = statusTypeRepository.findById(statusId);
-
-        if (purchaseOpt.isPresent() && statusOpt.isPresent()) {
-            Purchase purchase = purchaseOpt.get();
-            purchase.setStatus(statusOpt.get());
-            purchaseRepository.save(purchase);
+        if (purchaseService.updateStatus(orderId, statusId)) {
             redirectAttributes.addFlashAttribute("success", "✅ Order status updated successfully!");
         } else {
             redirectAttributes.addFlashAttribute("error", "⚠️ Failed to update order status.");
@@ -170,31 +237,43 @@ public class AdminDashboardController {
      * - search by name
      * - sort by quantity, name, or revenue
      * - filter by time (today, week, month, all)
+     * Today / week are answered approximately from the in-memory sketch unless
+     * {@code exact=true} asks for the precise rollup numbers.
      */
     @GetMapping("/top-products")
     public String viewTopSellingProducts(@RequestParam(required = false) String search,
                                          @RequestParam(required = false, defaultValue = "quantity") String sortBy,
                                          @RequestParam(required = false, defaultValue = "all") String time,
+                                         @RequestParam(required = false, defaultValue = "false") boolean exact,
                                          Model model) {
 
         if (search == null) search = "";
-        LocalDateTime startDate;
+        LocalDate startDay;
 
-        // Determine the start date based on the selected time range
+        // Determine the start day based on the selected time range
         switch (time) {
-            case "today" -> startDate = LocalDate.now().atStartOfDay();
-            case "week" -> startDate = LocalDate.now().minusDays(7).atStartOfDay();
-            case "month" -> startDate = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-            default -> startDate = LocalDate.of(2000, 1, 1).atStartOfDay(); // everything
+            case "today" -> startDay = LocalDate.now();
+            case "week" -> startDay = LocalDate.now().minusDays(7);
+            case "month" -> startDay = LocalDate.now().withDayOfMonth(1);
+            default -> startDay = LocalDate.of(2000, 1, 1); // everything
         }
 
-        // Query top products with filters applied
-        List<Object[]> topProducts = productService.findTopSellingFilteredSortedAndTimed(search, sortBy, startDate);
+        // Query top products with filters applied (approximate for short windows unless exact is requested)
+        boolean approximate = !exact && topProductsSketch.supports(time);
+        List<Object[]> topProducts = approximate
+                ? topProductsSketch.findTopSelling(startDay, search, sortBy)
+                : productService.findTopSellingFilteredSortedAndTimed(search, sortBy, startDay);
+
+        // Estimated distinct buyers per product (all time), keyed by product ID (row[3])
+        List<Long> productIds = topProducts.stream().map(row -> (Long) row[3]).toList();
 
         model.addAttribute("topProducts", topProducts);
+        model.addAttribute("uniqueBuyers", customerCardinalityService.uniqueBuyers(productIds));
         model.addAttribute("search", search);
         model.addAttribute("sortBy", sortBy);
         model.addAttribute("time", time);
+        model.addAttribute("exact", exact);
+        model.addAttribute("approximate", approximate);
         return "admin/top-products";
     }
 
@@ -207,30 +286,17 @@ public class AdminDashboardController {
             @RequestParam(defaultValue = "all") String status,
             Model model) {
 
-        List<Object[]> revenueData;
         // Determine time filter
-        LocalDateTime startDate;
+        LocalDate startDay;
         switch (time) {
-            case "month" -> startDate = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-            case "week" -> startDate = LocalDate.now().minusDays(7).atStartOfDay();
-            case "today" -> startDate = LocalDate.now().atStartOfDay();
-            default -> startDate = null; // no filtering
+            case "month" -> startDay = LocalDate.now().withDayOfMonth(1);
+            case "week" -> startDay = LocalDate.now().minusDays(7);
+            case "today" -> startDay = LocalDate.now();
+            default -> startDay = null; // no filtering
         }
 
-        // Apply appropriate filtering logic based on status and time
-        if (startDate != null && !"all".equalsIgnoreCase(status)) {
-            // filter by date AND status
-            revenueData = purchaseRepository.findRevenueByStatusSince(startDate, status);
-        } else if (startDate != null) {
-            // filter by date only
-            revenueData = purchaseRepository.findRevenueSince(startDate);
-        } else if (!"all".equalsIgnoreCase(status)) {
-            // filter by status only
-            revenueData = purchaseRepository.findRevenueByStatus(status);
-        } else {
-            // no filters
-            revenueData = purchaseRepository.findMonthlyRevenue();
-        }
+        // Read the series from the daily rollup (cost grows with days, not orders)
+        List<Object[]> revenueData = purchaseService.getRevenueChart(startDay, status);
 
         model.addAttribute("revenueData", revenueData);
         model.addAttribute("selectedTime", time);
@@ -249,6 +315,33 @@ public class AdminDashboardController {
         return "admin/analytics"; // this matches templates/admin/analytics.html
     }
 
+    /**
+     * Returns hit/miss metrics of the analytics query cache as JSON.
+     */
+    @GetMapping("/analytics/cache-stats")
+    @ResponseBody
+    public Map<String, Object> analyticsCacheStats() {
+        return analyticsQueryCache.stats();
+    }
+
+    /**
+     * Returns per-pool connection wait times and occupancy as JSON.
+     */
+    @GetMapping("/pools")
+    @ResponseBody
+    public Map<String, Map<String, Object>> connectionPoolStats() {
+        return poolWaitMetrics.snapshot();
+    }
+
+    /**
+     * Returns SSE subscriber counts, queue depths and evictions as JSON.
+     */
+    @GetMapping("/sse")
+    @ResponseBody
+    public Map<String, Object> sseStats() {
+        return sseDispatcher.snapshot();
+    }
+
 
 
 }
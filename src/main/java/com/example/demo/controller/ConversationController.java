@@ -1,14 +1,24 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.ChatMessageDTO;
+import com.example.demo.dto.ConversationSummaryDTO;
+import com.example.demo.dto.MessagePageDTO;
 import com.example.demo.model.*;
 import com.example.demo.repository.*;
+import com.example.demo.service.ChatMessageWriter;
 import com.example.demo.service.ChatSseService;
+import com.example.demo.service.ConversationPurgeService;
+import com.example.demo.service.MessageSearchIndex;
+import com.example.demo.service.UnreadCounterService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -27,6 +37,18 @@ import java.util.Map;
 @Controller
 public class ConversationController {
 
+    /** Conversations per page of the admin sidebar. */
+    private static final int ADMIN_PAGE_SIZE = 30;
+
+    /** Messages per page of a conversation's history. */
+    private static final int MESSAGE_PAGE_SIZE = 50;
+
+    /** Maximum keyword matches considered by the admin conversation list. */
+    private static final int MAX_KEYWORD_MATCHES = 1000;
+
+    /** Open upper bound for dates and the first-page cursor (9999-12-31, still a valid DATETIME). */
+    private static final Date FAR_FUTURE = new Date(253402300799000L);
+
     @Autowired
     private ConversationRepository conversationRepository;
 
@@ -42,6 +64,27 @@ public class ConversationController {
     @Autowired
     private ConversationListSseService conversationListSseService;
 
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private MessageSearchIndex messageSearchIndex;
+
+    @Autowired
+    private ChatMessageWriter chatMessageWriter;
+
+    @Autowired
+    private ConversationPurgeService conversationPurgeService;
+
+    /**
+     * Binds only the content of a posted message. The {id} path variable of the send URL would
+     * otherwise be bound to the message's ID, and saving a message with an ID overwrites that row.
+     */
+    @InitBinder("newMessage")
+    public void initMessageBinder(WebDataBinder binder) {
+        binder.setAllowedFields("content");
+    }
+
     /**
      * USER: View their own conversations, with optional filters by keyword and date.
      */
@@ -59,8 +102,18 @@ public class ConversationController {
 
         List<Conversation> conversations = conversationRepository.findByUser(user);
 
+        // Keyword filter from the message search index (no message bodies read from the DB)
+        boolean indexedSearch = keyword != null && !keyword.isBlank() && messageSearchIndex.isReady();
+        if (indexedSearch) {
+            Set<Long> ownIds = conversations.stream().map(Conversation::getId).collect(Collectors.toSet());
+            MessageSearchIndex.Result result = messageSearchIndex.search(keyword, ownIds);
+            conversations.removeIf(conv -> !result.matches().containsKey(conv.getId()));
+            model.addAttribute("snippets", result.matches());
+            model.addAttribute("searchTruncated", result.truncated());
+        }
+
         // Apply filters
-        if (date != null || (keyword != null && !keyword.isBlank())) {
+        if (date != null || (!indexedSearch && keyword != null && !keyword.isBlank())) {
             conversations = conversations.stream().filter(conv -> {
                 boolean match = true;
 
@@ -70,7 +123,7 @@ public class ConversationController {
                     match &= lastUpdatedDate.equals(date);
                 }
 
-                if (keyword != null && !keyword.isBlank()) {
+                if (!indexedSearch && keyword != null && !keyword.isBlank()) {
                     List<MessageEntry> messages = messageEntryRepository.findByConversationOrderBySentAtAsc(conv);
                     match &= messages.stream().anyMatch(msg ->
                             msg.getContent() != null &&
@@ -82,10 +135,7 @@ public class ConversationController {
 
         // If a specific conversation is requested, load its messages
         if (id != null) {
-            conversationRepository.findById(id).ifPresent(conv -> {
-                model.addAttribute("messages",
-                        messageEntryRepository.findByConversationOrderBySentAtAsc(conv));
-            });
+            conversationRepository.findById(id).ifPresent(conv -> addLatestMessages(conv.getId(), model));
             model.addAttribute("activeId", id);
         }
 
@@ -102,28 +152,58 @@ public class ConversationController {
         Conversation conversation = conversationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Conversation not found"));
 
-        List<MessageEntry> messages = messageEntryRepository
-                .findByConversationOrderBySentAtAsc(conversation);
-
         MessageEntry newMessage = new MessageEntry();
         newMessage.setConversation(conversation);
 
-// mark unread messages as read when admin views conversation
-        if (principal != null && principal.getName().equalsIgnoreCase("admin")) {
-            List<MessageEntry> unreads = messageEntryRepository
-                    .findByConversationAndFromAdminFalseAndReadByAdminFalse(conversation);
-            if (!unreads.isEmpty()) {
-                unreads.forEach(m -> m.setReadByAdmin(true));
-                messageEntryRepository.saveAll(unreads);
-            }
-        }
         model.addAttribute("conversation", conversation);
-        model.addAttribute("messages", messages);
+        Long newestId = addLatestMessages(id, model);
         model.addAttribute("newMessage", newMessage);
 
+        // Admin viewing the conversation: move the read watermark to the newest message shown
+        if (principal != null && principal.getName().equalsIgnoreCase("admin")
+                && newestId != null && newestId > conversation.getAdminReadMessageId()) {
+            unreadCounterService.conversationRead(id, newestId);
+        }
+
         return "conversation/view";
     }
 
+    /**
+     * Returns the page of messages sent before the given cursor (oldest shown message),
+     * used by the conversation views to load older history on scroll.
+     *
+     * @param beforeTime sentAt (epoch millis) of the oldest message already shown
+     * @param beforeId   ID of the oldest message already shown
+     */
+    @GetMapping("/conversation/{id}/messages")
+    @PreAuthorize("isAuthenticated()")
+    @ResponseBody
+    public ResponseEntity<MessagePageDTO> olderMessages(@PathVariable Long id,
+                                                        @RequestParam("beforeTime") long beforeTime,
+                                                        @RequestParam("beforeId") long beforeId,
+                                                        Principal principal) {
+        Conversation conv = conversationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+        // Only the owner or admin may read the history
+        boolean isOwner = conv.getUser() != null && conv.getUser().getUsername().equals(principal.getName());
+        boolean isAdmin = principal.getName().equalsIgnoreCase("admin");
+        if (!isOwner && !isAdmin) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        List<MessageEntry> page = messageEntryRepository.findOlder(id, new Date(beforeTime), beforeId,
+                PageRequest.of(0, MESSAGE_PAGE_SIZE));
+        List<ChatMessageDTO> messages = new ArrayList<>();
+        for (int i = page.size() - 1; i >= 0; i--) {
+            messages.add(ChatMessageDTO.from(page.get(i)));
+        }
+
+        MessageEntry oldest = page.size() == MESSAGE_PAGE_SIZE ? page.get(page.size() - 1) : null;
+        return ResponseEntity.ok(new MessagePageDTO(messages,
+                oldest != null ? oldest.getSentAt().getTime() : null,
+                oldest != null ? oldest.getId() : null));
+    }
+
     /**
      * Send a new message to a conversation (admin or user).
      */
@@ -162,24 +242,14 @@ public class ConversationController {
         newMessage.setConversation(conversation);
         newMessage.setSentAt(new Date());
         newMessage.setFromAdmin(sender.getRole() != null && sender.getRole().contains("ADMIN"));
-        newMessage.setReadByAdmin(sender.getRole() != null && sender.getRole().contains("ADMIN"));
-
-        // Save and broadcast
-        MessageEntry savedMessage = messageEntryRepository.save(newMessage);
 
-        ChatMessageDTO dto = new ChatMessageDTO(
-                savedMessage.getId(),
-                sender.getUsername(),
-                savedMessage.getContent(),
-                java.time.LocalDateTime.now(),
-                savedMessage.isFromAdmin()
-        );
+        // Save (or queue, in write-behind mode) and broadcast
+        ChatMessageWriter.Written written = chatMessageWriter.write(newMessage);
+        MessageEntry savedMessage = written.message();
 
-        chatSseService.send(id, dto);
-
-        conversation.setLastUpdated(new Date());
-        conversationRepository.save(conversation);
-        conversationListSseService.send(conversation);
+        // Same DTO as the history and the catch-up, so live and replayed events agree
+        chatSseService.send(id, ChatMessageDTO.from(savedMessage));
+        conversationListSseService.send(conversation, savedMessage.getContent(), written.unreadByAdmin());
 
         if (sender.getRole() != null && sender.getRole().contains("ADMIN")) {
             return "redirect:/admin/conversations?id=" + id + "&success";
@@ -203,7 +273,6 @@ public class ConversationController {
         conversation.setUser(user);
         conversation.setLastUpdated(new Date());
         conversationRepository.save(conversation);
-        conversationListSseService.send(conversation);
 
         MessageEntry message = new MessageEntry();
         message.setConversation(conversation);
@@ -211,74 +280,85 @@ public class ConversationController {
         message.setContent(messageContent);
         message.setSentAt(new Date());
         message.setFromAdmin(false);
-        messageEntryRepository.save(message);
+        ChatMessageWriter.Written written = chatMessageWriter.write(message);
+        conversationListSseService.send(conversation, messageContent, written.unreadByAdmin());
 
         return "redirect:/my-conversations?success";
     }
 
     /**
-     * ADMIN: View all conversations with filters and selected thread preview.
+     * ADMIN: View the newest conversations with filters and selected thread preview.
+     * Further conversations are fetched page by page from {@link #loadMoreConversations}
+     * as the admin scrolls the sidebar.
      */
     @GetMapping("/admin/conversations")
     @PreAuthorize("hasRole('ADMIN')")
     public String viewAllConversations(
             @RequestParam(value = "username", required = false) String username,
-            @RequestParam(value = "date", required = false) String date,
+            @RequestParam(value = "date", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam(value = "keyword", required = false) String keyword,
             @RequestParam(value = "id", required = false) Long id,
             Model model) {
 
-        List<Conversation> conversations = conversationRepository.findAll();
-// Build map of unread user messages per conversation
-        Map<Long, Long> unreadMap = conversations.stream()
-                .collect(Collectors.toMap(
-                        Conversation::getId,
-                        c -> messageEntryRepository.countByConversationAndFromAdminFalseAndReadByAdminFalse(c)
-                ));
-        model.addAttribute("unreadMap", unreadMap);
-
+        MessageSearchIndex.Result matches = searchKeyword(keyword, username, date);
+        List<Conversation> conversations = findAdminConversations(username, date, keyword, matches, null, null);
 
         // Show messages of selected conversation
         if (id != null) {
-            conversationRepository.findById(id).ifPresent(conv -> {
-                model.addAttribute("messages",
-                        messageEntryRepository.findByConversationOrderBySentAtAsc(conv));
-            });
+            conversationRepository.findById(id).ifPresent(conv -> addLatestMessages(conv.getId(), model));
             model.addAttribute("activeId", id);
         }
-        // Apply filters
-        if (username != null && !username.isBlank()) {
-            conversations.removeIf(conv -> conv.getUser() == null ||
-                    !conv.getUser().getUsername().toLowerCase().contains(username.toLowerCase()));
-        }
 
-        if (date != null && !date.isBlank()) {
-            conversations.removeIf(conv -> {
-                String formatted = new java.text.SimpleDateFormat("yyyy-MM-dd").format(conv.getLastUpdated());
-                return !formatted.equals(date);
-            });
+        // Cursor of the next page (only when this page is full)
+        if (conversations.size() == ADMIN_PAGE_SIZE) {
+            Conversation last = conversations.get(conversations.size() - 1);
+            model.addAttribute("nextAfterTime", last.getLastUpdated().getTime());
+            model.addAttribute("nextAfterId", last.getId());
         }
 
-        if (keyword != null && !keyword.isBlank()) {
-            conversations.removeIf(conv -> {
-                List<MessageEntry> messages = messageEntryRepository.findByConversationOrderBySentAtAsc(conv);
-                return messages.stream().noneMatch(msg ->
-                        msg.getContent() != null &&
-                                msg.getContent().toLowerCase().contains(keyword.toLowerCase()));
-            });
+        if (matches != null) {
+            model.addAttribute("snippets", matches.matches());
+            model.addAttribute("searchTruncated",
+                    matches.truncated() || matches.matches().size() > MAX_KEYWORD_MATCHES);
         }
-
         model.addAttribute("conversations", conversations);
         return "admin/conversations";
     }
 
+    /**
+     * ADMIN: Returns the next page of the conversation list (same filters) as JSON.
+     *
+     * @param afterTime lastUpdated (epoch millis) of the last conversation already shown
+     * @param afterId   ID of the last conversation already shown
+     */
+    @GetMapping("/admin/conversations/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public List<ConversationSummaryDTO> loadMoreConversations(
+            @RequestParam(value = "username", required = false) String username,
+            @RequestParam(value = "date", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(value = "keyword", required = false) String keyword,
+            @RequestParam("afterTime") long afterTime,
+            @RequestParam("afterId") long afterId) {
+
+        return findAdminConversations(username, date, keyword, searchKeyword(keyword, username, date),
+                new Date(afterTime), afterId)
+                .stream()
+                .map(ConversationSummaryDTO::from)
+                .collect(Collectors.toList());
+    }
+
     /**
      * SSE: Provide real-time message updates for a specific conversation.
+     * A reconnecting client gets the messages it missed (based on Last-Event-ID).
      */
     @GetMapping("/conversation/{id}/stream")
     @PreAuthorize("isAuthenticated()")
-    public SseEmitter stream(@PathVariable Long id) {
-        return chatSseService.register(id);
+    public SseEmitter stream(@PathVariable Long id,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return chatSseService.register(id, lastEventId);
     }
 
 
@@ -304,15 +384,12 @@ public class ConversationController {
 
 
     /**
-     * ADMIN: Delete a conversation and all its messages.
+     * ADMIN: Delete a conversation and all its messages (soft delete; messages are purged in the background).
      */
     @PostMapping("/admin/conversations/{id}/delete")
     @PreAuthorize("hasRole('ADMIN')")
     public String deleteConversation(@PathVariable Long id) {
-        conversationRepository.findById(id).ifPresent(conv -> {
-            messageEntryRepository.deleteAll(messageEntryRepository.findByConversationOrderBySentAtAsc(conv));
-            conversationRepository.delete(conv);
-        });
+        conversationRepository.findById(id).ifPresent(conversationPurgeService::delete);
         return "redirect:/admin/conversations?deleted";
     }
 
@@ -356,12 +433,105 @@ public class ConversationController {
         if (!isOwner && !isAdmin) {
             return "redirect:/?unauthorized";
         }
-        messageEntryRepository.deleteAll(messageEntryRepository.findByConversationOrderBySentAtAsc(conv));
-        conversationRepository.delete(conv);
+        conversationPurgeService.delete(conv);
         return isAdmin ? "redirect:/admin/conversations?deleted" : "redirect:/my-conversations?deleted";
     }
 
 
+    /**
+     * Puts the newest page of a conversation's messages (oldest first) on the model, plus the
+     * cursor ({@code olderBeforeTime}, {@code olderBeforeId}) when older messages may exist.
+     * Messages still queued by the write-behind writer are appended.
+     *
+     * @return the ID of the newest stored message, or null if the conversation has none
+     */
+    private Long addLatestMessages(Long conversationId, Model model) {
+        List<MessageEntry> page = messageEntryRepository.findLatest(conversationId,
+                PageRequest.of(0, MESSAGE_PAGE_SIZE));
+        if (page.size() == MESSAGE_PAGE_SIZE) {
+            MessageEntry oldest = page.get(page.size() - 1);
+            model.addAttribute("olderBeforeTime", oldest.getSentAt().getTime());
+            model.addAttribute("olderBeforeId", oldest.getId());
+        }
+        List<MessageEntry> messages = new ArrayList<>(page);
+        Collections.reverse(messages);
+        Set<Long> shown = messages.stream().map(MessageEntry::getId).collect(Collectors.toSet());
+        chatMessageWriter.pending(conversationId).stream()
+                .filter(m -> !shown.contains(m.getId()))
+                .forEach(messages::add);
+        model.addAttribute("messages", messages);
+        return page.isEmpty() ? null : page.get(0).getId();
+    }
+
+    /**
+     * Looks up a keyword in the message search index. With a username or date filter only the
+     * conversations passing it are searched, so the search bounds apply to those alone.
+     *
+     * @return matching conversation IDs with snippets, or null when there is no keyword
+     *         or the index is still building
+     */
+    private MessageSearchIndex.Result searchKeyword(String keyword, String username, LocalDate date) {
+        if (keyword == null || keyword.isBlank() || !messageSearchIndex.isReady()) {
+            return null;
+        }
+        Set<Long> scope = null;
+        if ((username != null && !username.isBlank()) || date != null) {
+            scope = new HashSet<>(conversationRepository.findAdminIds(
+                    username == null || username.isBlank() ? null : username.trim(), startOf(date), endOf(date)));
+        }
+        return messageSearchIndex.search(keyword, scope);
+    }
+
+    /** Start of the given day, or the epoch when there is no date filter. */
+    private static Date startOf(LocalDate date) {
+        return date != null ? Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant()) : new Date(0L);
+    }
+
+    /** Start of the day after the given one, or {@link #FAR_FUTURE} when there is no date filter. */
+    private static Date endOf(LocalDate date) {
+        return date != null ? Date.from(date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant()) : FAR_FUTURE;
+    }
+
+    /**
+     * Loads one keyset page of the admin conversation list. Username prefix and date
+     * are filtered in SQL; a keyword restricts the page to the search index matches.
+     *
+     * @param matches   keyword matches from {@link #searchKeyword}, or null
+     * @param afterTime cursor time (null for the first page)
+     * @param afterId   cursor ID (null for the first page)
+     */
+    private List<Conversation> findAdminConversations(String username, LocalDate date, String keyword,
+                                                      MessageSearchIndex.Result matches,
+                                                      Date afterTime, Long afterId) {
+        String prefix = username == null || username.isBlank() ? null : username.trim();
+        Date from = startOf(date);
+        Date to = endOf(date);
+        Date cursorTime = afterTime != null ? afterTime : FAR_FUTURE;
+        long cursorId = afterId != null ? afterId : Long.MAX_VALUE;
+        PageRequest page = PageRequest.of(0, ADMIN_PAGE_SIZE);
+
+        if (matches != null) {
+            if (matches.matches().isEmpty()) {
+                return new ArrayList<>();
+            }
+            // Most recent matches first; bounded so the IN list stays small (the view says when)
+            List<Long> ids = matches.matches().keySet().stream().limit(MAX_KEYWORD_MATCHES).toList();
+            return conversationRepository.findAdminPageWithin(ids, prefix, from, to, cursorTime, cursorId, page);
+        }
+
+        List<Conversation> conversations = conversationRepository.findAdminPage(prefix, from, to, cursorTime, cursorId, page);
+        if (keyword != null && !keyword.isBlank()) {
+            // Index still building: filter this page by scanning its messages
+            conversations.removeIf(conv -> {
+                List<MessageEntry> messages = messageEntryRepository.findByConversationOrderBySentAtAsc(conv);
+                return messages.stream().noneMatch(msg ->
+                        msg.getContent() != null &&
+                                msg.getContent().toLowerCase().contains(keyword.toLowerCase()));
+            });
+        }
+        return conversations;
+    }
+
     /**
      * Decide where to redirect after sending a message based on the page the request originated from.
      */
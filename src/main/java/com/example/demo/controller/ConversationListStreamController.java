@@ -3,6 +3,7 @@ package com.example.demo.controller;
 import com.example.demo.service.ConversationListSseService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -28,12 +29,13 @@ public class ConversationListStreamController {
 
     /**
      * Endpoint that returns an SseEmitter to the client.
-     * This emitter will push events (new conversations) to the client as they occur.
+     * This emitter will push events (new conversations) to the client as they occur,
+     * after replaying the ones missed since the client's Last-Event-ID.
      *
      * @return an active SseEmitter for real-time communication
      */
     @GetMapping(value = "/stream", produces = "text/event-stream")
-    public SseEmitter stream() {
-        return listSseService.addEmitter();
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return listSseService.addEmitter(lastEventId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.DashboardSseService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controller that provides a Server-Sent Events (SSE) endpoint for streaming
+ * live order and revenue updates to the admin dashboard.
+ *
+ * This keeps the dashboard counters current during sales without page refreshes
+ * or re-running aggregation queries.
+ */
+@RestController
+@RequestMapping("/admin/dashboard")
+@PreAuthorize("hasRole('ADMIN')")
+public class DashboardStreamController {
+
+    private final DashboardSseService dashboardSseService;
+
+    // Constructor injection for the SSE service that manages emitters
+    public DashboardStreamController(DashboardSseService dashboardSseService) {
+        this.dashboardSseService = dashboardSseService;
+    }
+
+    /**
+     * Endpoint that returns an SseEmitter to the client.
+     * This emitter will push at most one "dashboard" event per second while orders come in.
+     *
+     * @return an active SseEmitter for real-time communication
+     */
+    @GetMapping(value = "/stream", produces = "text/event-stream")
+    public SseEmitter stream() {
+        return dashboardSseService.addEmitter();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.ConversationRepository;
+import com.example.demo.service.ChatSseService;
+import com.example.demo.service.ConversationListSseService;
+import com.example.demo.service.DashboardSseService;
+import com.example.demo.service.SseDispatcher;
+import com.example.demo.service.UnreadCounterService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Controller that provides one multiplexed Server-Sent Events (SSE) stream per browser.
+ *
+ * The page scripts share the stream through a SharedWorker ({@code /js/events.js}) and
+ * subscribe to topics: {@code chat:<conversationId>}, {@code conversations}, {@code unread}
+ * and {@code dashboard}. Each event carries its topic, so one connection serves every widget
+ * of every open tab.
+ */
+@RestController
+@RequestMapping("/events")
+@PreAuthorize("isAuthenticated()")
+public class EventStreamController {
+
+    private final SseDispatcher dispatcher;
+    private final ConversationRepository conversationRepository;
+    private final UnreadCounterService unreadCounterService;
+
+    // Constructor injection for the dispatcher and the services used to authorize and prime topics
+    public EventStreamController(SseDispatcher dispatcher,
+                                 ConversationRepository conversationRepository,
+                                 UnreadCounterService unreadCounterService) {
+        this.dispatcher = dispatcher;
+        this.conversationRepository = conversationRepository;
+        this.unreadCounterService = unreadCounterService;
+    }
+
+    /**
+     * Opens the stream. The first event ({@code ready}) carries the stream ID used to change topics.
+     * A reconnecting client first gets the events it missed on its topics.
+     *
+     * @param topics      initial topics, comma separated (topics the user may not read are ignored)
+     * @param lastEventId ID of the last event received, sent by EventSource when it reconnects
+     * @param resumeFrom  the same for a new EventSource resuming an old stream (query parameter)
+     * @return an active SseEmitter for real-time communication
+     */
+    @GetMapping(value = "/stream", produces = "text/event-stream")
+    public SseEmitter stream(@RequestParam(value = "topics", required = false) List<String> topics,
+                             @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                             @RequestParam(value = "lastEventId", required = false) Long resumeFrom,
+                             Authentication authentication) {
+        String streamId = UUID.randomUUID().toString();
+        Set<String> allowed = allowedTopics(topics, authentication);
+        SseEmitter emitter = dispatcher.openStream(streamId, authentication.getName(), allowed,
+                lastEventId != null ? lastEventId : resumeFrom);
+        prime(streamId, allowed);
+        return emitter;
+    }
+
+    /**
+     * Replaces the topics of an open stream.
+     *
+     * @param streamId ID from the stream's {@code ready} event
+     * @param topics   every topic the stream should receive from now on
+     * @return the topics actually subscribed, or 404 if the stream is not open for this user
+     */
+    @PostMapping("/stream/{streamId}/topics")
+    public ResponseEntity<Set<String>> setTopics(@PathVariable String streamId,
+                                                 @RequestBody List<String> topics,
+                                                 Authentication authentication) {
+        Set<String> allowed = allowedTopics(topics, authentication);
+        Set<String> added = dispatcher.setChannels(streamId, authentication.getName(), allowed);
+        if (added == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        prime(streamId, added);
+        return ResponseEntity.ok(allowed);
+    }
+
+    /**
+     * Keeps the topics this user may read: admins read everything, users only their own conversations.
+     */
+    private Set<String> allowedTopics(List<String> topics, Authentication authentication) {
+        Set<String> allowed = new LinkedHashSet<>();
+        if (topics == null) {
+            return allowed;
+        }
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        List<Long> conversationIds = new ArrayList<>();
+        for (String topic : topics) {
+            if (topic.startsWith("chat:")) {
+                try {
+                    conversationIds.add(Long.valueOf(topic.substring("chat:".length())));
+                } catch (NumberFormatException ex) {
+                    // Not a conversation topic
+                }
+            } else if (admin && (topic.equals(ConversationListSseService.CHANNEL)
+                    || topic.equals(UnreadCounterService.CHANNEL)
+                    || topic.equals(DashboardSseService.CHANNEL))) {
+                allowed.add(topic);
+            }
+        }
+        if (!conversationIds.isEmpty()) {
+            conversationRepository.findAllById(conversationIds).forEach(conv -> {
+                boolean owner = conv.getUser() != null && conv.getUser().getUsername().equals(authentication.getName());
+                if (admin || owner) {
+                    allowed.add(ChatSseService.channel(conv.getId()));
+                }
+            });
+        }
+        return allowed;
+    }
+
+    /**
+     * Sends the current state of newly joined topics that have one (the unread badges).
+     */
+    private void prime(String streamId, Set<String> topics) {
+        if (topics.contains(UnreadCounterService.CHANNEL)) {
+            dispatcher.sendTo(streamId, UnreadCounterService.CHANNEL, "unread", unreadCounterService.snapshot());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.example.demo.model.Account;
 import com.example.demo.model.Message;
 import com.example.demo.repository.AccountRepository;
 import com.example.demo.repository.MessageRepository;
+import com.example.demo.service.UnreadCounterService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
@@ -22,6 +23,9 @@ public class MessageController {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
     /**
      * Displays the contact form for users to send messages to the admin.
      */
@@ -43,6 +47,7 @@ public class MessageController {
         message.setSentAt(new Date());
         message.setLastUpdated(new Date());
         messageRepository.save(message);
+        unreadCounterService.messageReceived();
         return "redirect:/contact?success";// Redirect with success indicator
     }
 
@@ -53,6 +58,7 @@ public class MessageController {
     @GetMapping("/admin/messages")
     public String viewMessages(Model model) {
         model.addAttribute("messages", messageRepository.findAll());
+        model.addAttribute("unreadMessageCount", unreadCounterService.unansweredMessages());
         return "admin/messages";
     }
 
@@ -64,8 +70,12 @@ public class MessageController {
     public String markMessageAsAnswered(@PathVariable Long id) {
         Message message = messageRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Message not found"));
+        boolean wasAnswered = message.isAnswered();
         message.setAnswered(true);
         messageRepository.save(message);
+        if (!wasAnswered) {
+            unreadCounterService.messageAnswered();
+        }
         return "redirect:/admin/messages";
     }
 
@@ -79,10 +89,14 @@ public class MessageController {
         Message message = messageRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Message not found"));
 
+        boolean wasAnswered = message.isAnswered();
         message.setReply(reply);
         message.setAnswered(true);
         message.setLastUpdated(new Date());
         messageRepository.save(message);
+        if (!wasAnswered) {
+            unreadCounterService.messageAnswered();
+        }
 
         return "redirect:/admin/messages";
     }
@@ -1,8 +1,14 @@
 package com.example.demo.controller;
+import com.example.demo.config.Workload;
+import com.example.demo.config.WorkloadType;
+import com.example.demo.events.PurchaseCreatedEvent;
 import com.example.demo.model.*;
 import com.example.demo.repository.*;
+import com.example.demo.service.ProductSalesRollupService;
+import com.example.demo.service.RevenueRollupService;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
@@ -23,6 +29,9 @@ public class OrderController {
     private final CartItemRepository cartItemRepository;
     private final ReviewRepository reviewRepository;
     private final ProductRepository productRepository;
+    private final RevenueRollupService revenueRollupService;
+    private final ProductSalesRollupService productSalesRollupService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public OrderController(PurchaseRepository purchaseRepository,
@@ -30,13 +39,19 @@ public class OrderController {
                            StatusTypeRepository statusTypeRepository,
                            CartItemRepository cartItemRepository,
                            ReviewRepository reviewRepository,
-                           ProductRepository productRepository) {
+                           ProductRepository productRepository,
+                           RevenueRollupService revenueRollupService,
+                           ProductSalesRollupService productSalesRollupService,
+                           ApplicationEventPublisher eventPublisher) {
         this.purchaseRepository = purchaseRepository;
         this.accountRepository = accountRepository;
         this.statusTypeRepository = statusTypeRepository;
         this.cartItemRepository = cartItemRepository;
         this.reviewRepository = reviewRepository;
         this.productRepository = productRepository;
+        this.revenueRollupService = revenueRollupService;
+        this.productSalesRollupService = productSalesRollupService;
+        this.eventPublisher = eventPublisher;
 
     }
 
@@ -53,6 +68,7 @@ public class OrderController {
      * Validates stock, creates a purchase, updates stock, saves purchase, clears cart.
      */
     @Transactional
+    @Workload(WorkloadType.CHECKOUT)
     @PostMapping("/checkout/confirm")
     public String processCheckout(@RequestParam String fullName,
                                   @RequestParam String phoneNumber,
@@ -139,8 +155,11 @@ public class OrderController {
         purchase.setTotal(total);
         purchase.setLineItems(lineItems);
 
-        // Step 4: Save purchase and clear cart
+        // Step 4: Save purchase, update the rollups (same transaction) and clear cart
         purchaseRepository.save(purchase);
+        revenueRollupService.recordPurchase(purchase);
+        productSalesRollupService.recordPurchase(purchase);
+        eventPublisher.publishEvent(new PurchaseCreatedEvent(purchase)); // handled after commit
         session.removeAttribute("cart");
         cartItemRepository.deleteByAccount(account);
 
@@ -178,7 +197,7 @@ public class OrderController {
         Optional<Account> accountOpt = accountRepository.findByUsername(userDetails.getUsername());
         if (accountOpt.isEmpty()) return "redirect:/login";
 
-        Optional<Purchase> purchaseOpt = purchaseRepository.findById(id);
+        Optional<Purchase> purchaseOpt = purchaseRepository.findWithLineItemsById(id);
         if (purchaseOpt.isEmpty()) {
             redirectAttributes.addFlashAttribute("error", "⚠️ Order not found.");
             return "redirect:/orders";
@@ -0,0 +1,36 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.UnreadCounterService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Controller that provides a Server-Sent Events (SSE) endpoint for streaming
+ * the unread message badges to open admin tabs.
+ */
+@RestController
+@RequestMapping("/admin/unread")
+@PreAuthorize("hasRole('ADMIN')")
+public class UnreadStreamController {
+
+    private final UnreadCounterService unreadCounterService;
+
+    // Constructor injection for the counter service that manages emitters
+    public UnreadStreamController(UnreadCounterService unreadCounterService) {
+        this.unreadCounterService = unreadCounterService;
+    }
+
+    /**
+     * Endpoint that returns an SseEmitter to the client.
+     * Sends the current counts immediately, then an "unread" event whenever they change.
+     *
+     * @return an active SseEmitter for real-time communication
+     */
+    @GetMapping(value = "/stream", produces = "text/event-stream")
+    public SseEmitter stream() {
+        return unreadCounterService.addEmitter();
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.demo.dto;
 
+import com.example.demo.model.MessageEntry;
+
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 
 /**
@@ -27,6 +30,16 @@ public class ChatMessageDTO {
         this.admin = admin;
     }
 
+    // Builds the DTO of a stored message
+    public static ChatMessageDTO from(MessageEntry message) {
+        return new ChatMessageDTO(
+                message.getId(),
+                message.getSender() != null ? message.getSender().getUsername() : null,
+                message.getContent(),
+                LocalDateTime.ofInstant(message.getSentAt().toInstant(), ZoneId.systemDefault()),
+                message.isFromAdmin());
+    }
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -0,0 +1,63 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Conversation;
+
+import java.util.Date;
+
+/**
+ * Data Transfer Object (DTO) for one row of the admin conversation list,
+ * returned by the "load more" endpoint of the sidebar and broadcast on live updates.
+ */
+public class ConversationSummaryDTO {
+    private Long id;                // Conversation ID
+    private String username;        // Username of the customer
+    private Date lastUpdated;       // Time of the last activity
+    private int unreadCount;        // User messages the admin has not read yet
+    private String snippet;         // Start of the last message (live updates only)
+
+    /** Maximum length of {@link #snippet}. */
+    public static final int SNIPPET_LENGTH = 80;
+
+    // Default constructor (required for serialization/deserialization)
+    public ConversationSummaryDTO() {}
+
+    // Constructor for quick initialization
+    public ConversationSummaryDTO(Long id, String username, Date lastUpdated, int unreadCount) {
+        this.id = id;
+        this.username = username;
+        this.lastUpdated = lastUpdated;
+        this.unreadCount = unreadCount;
+    }
+
+    // Builds a summary from a conversation whose user is already loaded
+    public static ConversationSummaryDTO from(Conversation conversation) {
+        return new ConversationSummaryDTO(
+                conversation.getId(),
+                conversation.getUser() != null ? conversation.getUser().getUsername() : null,
+                conversation.getLastUpdated(),
+                conversation.getUnreadByAdmin());
+    }
+
+    // Builds a summary that also shows the start of the last message
+    public static ConversationSummaryDTO from(Conversation conversation, String lastMessage) {
+        ConversationSummaryDTO dto = from(conversation);
+        if (lastMessage != null) {
+            dto.setSnippet(lastMessage.length() > SNIPPET_LENGTH
+                    ? lastMessage.substring(0, SNIPPET_LENGTH) + "…"
+                    : lastMessage);
+        }
+        return dto;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    public Date getLastUpdated() { return lastUpdated; }
+    public void setLastUpdated(Date lastUpdated) { this.lastUpdated = lastUpdated; }
+    public int getUnreadCount() { return unreadCount; }
+    public void setUnreadCount(int unreadCount) { this.unreadCount = unreadCount; }
+    public String getSnippet() { return snippet; }
+    public void setSnippet(String snippet) { this.snippet = snippet; }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object (DTO) pushed to open admin dashboards over SSE.
+ * Carries the order/revenue deltas since the previous update plus the current totals,
+ * so clients can update their counters without re-querying.
+ */
+public class DashboardUpdateDTO {
+    private long orderDelta;            // Orders placed since the previous update
+    private BigDecimal revenueDelta;    // Revenue placed since the previous update
+    private long orderCount;            // Total number of orders
+    private BigDecimal revenueToday;    // Revenue of orders placed today
+
+    // Default constructor (required for serialization/deserialization)
+    public DashboardUpdateDTO() {}
+
+    // Constructor for quick initialization
+    public DashboardUpdateDTO(long orderDelta, BigDecimal revenueDelta, long orderCount, BigDecimal revenueToday) {
+        this.orderDelta = orderDelta;
+        this.revenueDelta = revenueDelta;
+        this.orderCount = orderCount;
+        this.revenueToday = revenueToday;
+    }
+
+    // Getters and Setters
+    public long getOrderDelta() { return orderDelta; }
+    public void setOrderDelta(long orderDelta) { this.orderDelta = orderDelta; }
+    public BigDecimal getRevenueDelta() { return revenueDelta; }
+    public void setRevenueDelta(BigDecimal revenueDelta) { this.revenueDelta = revenueDelta; }
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+    public BigDecimal getRevenueToday() { return revenueToday; }
+    public void setRevenueToday(BigDecimal revenueToday) { this.revenueToday = revenueToday; }
+}
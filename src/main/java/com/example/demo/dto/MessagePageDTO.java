@@ -0,0 +1,33 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+
+/**
+ * Data Transfer Object (DTO) for one page of a conversation's message history.
+ * Messages are in ascending time order; the cursor points at the oldest message of the page.
+ */
+public class MessagePageDTO {
+    private List<ChatMessageDTO> messages; // Messages of this page, oldest first
+    private Long beforeTime;               // sentAt (epoch millis) of the oldest message, null if no older page
+    private Long beforeId;                 // ID of the oldest message, null if no older page
+
+
+    // Default constructor (required for serialization/deserialization)
+    public MessagePageDTO() {}
+
+    // Constructor for quick initialization
+    public MessagePageDTO(List<ChatMessageDTO> messages, Long beforeTime, Long beforeId) {
+        this.messages = messages;
+        this.beforeTime = beforeTime;
+        this.beforeId = beforeId;
+    }
+
+    // Getters and Setters
+    public List<ChatMessageDTO> getMessages() { return messages; }
+    public void setMessages(List<ChatMessageDTO> messages) { this.messages = messages; }
+    public Long getBeforeTime() { return beforeTime; }
+    public void setBeforeTime(Long beforeTime) { this.beforeTime = beforeTime; }
+    public Long getBeforeId() { return beforeId; }
+    public void setBeforeId(Long beforeId) { this.beforeId = beforeId; }
+}
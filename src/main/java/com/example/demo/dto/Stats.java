@@ -1,13 +1,17 @@
 package com.example.demo.dto;
 
+import java.math.BigDecimal;
+
 /**
  * DTO (Data Transfer Object) that encapsulates statistical summary data
  * for the admin dashboard or analytics view.
  */
 public class Stats {
-    private long productCount; // Total number of products
-    private long orderCount;   // Total number of orders (purchases)
-    private long userCount;    // Total number of registered users
+    private long productCount;          // Total number of products
+    private long orderCount;            // Total number of orders (purchases)
+    private long userCount;             // Total number of registered users
+    private BigDecimal revenueToday;    // Revenue of orders placed today
+    private long openConversations;     // Number of open support conversations
 
     /**
      * Constructs a Stats object with counts for products, orders, and users.
@@ -18,9 +22,25 @@ public class Stats {
      */
 
     public Stats(long productCount, long orderCount, long userCount) {
+        this(productCount, orderCount, userCount, BigDecimal.ZERO, 0L);
+    }
+
+    /**
+     * Constructs a Stats object with all dashboard KPIs.
+     *
+     * @param productCount      number of products in the system
+     * @param orderCount        number of orders placed
+     * @param userCount         number of registered user accounts
+     * @param revenueToday      revenue of orders placed today
+     * @param openConversations number of open support conversations
+     */
+    public Stats(long productCount, long orderCount, long userCount,
+                 BigDecimal revenueToday, long openConversations) {
         this.productCount = productCount;
         this.orderCount = orderCount;
         this.userCount = userCount;
+        this.revenueToday = revenueToday;
+        this.openConversations = openConversations;
     }
 
     /**
@@ -50,4 +70,22 @@ public class Stats {
     public long getUserCount() {
         return userCount;
     }
+
+    /**
+     * Returns today's revenue.
+     *
+     * @return revenue of orders placed today
+     */
+    public BigDecimal getRevenueToday() {
+        return revenueToday;
+    }
+
+    /**
+     * Returns the number of open conversations.
+     *
+     * @return open conversation count
+     */
+    public long getOpenConversations() {
+        return openConversations;
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+/**
+ * Data Transfer Object (DTO) pushed to open admin tabs over SSE
+ * with the current unread badge counts.
+ */
+public class UnreadCountsDTO {
+    private long unansweredMessages;    // Contact-form messages not yet answered
+    private long unreadChatMessages;    // User chat messages not yet read by an admin
+
+    // Default constructor (required for serialization/deserialization)
+    public UnreadCountsDTO() {}
+
+    // Constructor for quick initialization
+    public UnreadCountsDTO(long unansweredMessages, long unreadChatMessages) {
+        this.unansweredMessages = unansweredMessages;
+        this.unreadChatMessages = unreadChatMessages;
+    }
+
+    // Getters and Setters
+    public long getUnansweredMessages() { return unansweredMessages; }
+    public void setUnansweredMessages(long unansweredMessages) { this.unansweredMessages = unansweredMessages; }
+    public long getUnreadChatMessages() { return unreadChatMessages; }
+    public void setUnreadChatMessages(long unreadChatMessages) { this.unreadChatMessages = unreadChatMessages; }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.events;
+
+import com.example.demo.model.Account;
+import com.example.demo.service.AccountSearchIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps {@link AccountSearchIndex} in step with account
+ * registrations, profile changes and deletions.
+ * Changes are applied once the surrounding transaction commits, so a rolled-back
+ * registration never shows up in the admin search.
+ */
+@Component
+public class AccountSearchListener {
+
+    /**
+     * Looked up lazily: Hibernate creates entity listeners while the EntityManagerFactory is
+     * being built, and the index depends on a repository that needs that factory.
+     */
+    private final ObjectProvider<AccountSearchIndex> index;
+
+    public AccountSearchListener(ObjectProvider<AccountSearchIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Account account) {
+        afterCommit(() -> index.getObject().put(account));
+    }
+
+    @PostRemove
+    public void onRemove(Account account) {
+        Long id = account.getId();
+        afterCommit(() -> index.getObject().remove(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
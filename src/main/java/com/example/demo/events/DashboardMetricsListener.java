@@ -0,0 +1,70 @@
+package com.example.demo.events;
+
+import com.example.demo.model.Account;
+import com.example.demo.model.Conversation;
+import com.example.demo.model.Product;
+import com.example.demo.model.Purchase;
+import com.example.demo.service.DashboardMetrics;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * JPA entity listener that keeps {@link DashboardMetrics} in step with inserts and deletes
+ * of products, accounts, purchases and conversations. Changes are applied once the
+ * surrounding transaction commits, so a rollback leaves the counts alone.
+ * Hibernate resolves this listener through Spring, so the registry is constructor-injected.
+ */
+@Component
+public class DashboardMetricsListener {
+
+    private final DashboardMetrics metrics;
+
+    // Constructor injection of the metrics registry
+    public DashboardMetricsListener(DashboardMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        update(entity, 1);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        update(entity, -1);
+    }
+
+    private void update(Object entity, int delta) {
+        if (entity instanceof Product) {
+            afterCommit(() -> metrics.productAdded(delta));
+        } else if (entity instanceof Account) {
+            afterCommit(() -> metrics.userAdded(delta));
+        } else if (entity instanceof Conversation) {
+            afterCommit(() -> metrics.conversationAdded(delta));
+        } else if (entity instanceof Purchase purchase) {
+            // Read now: the entity may change before the transaction commits
+            LocalDate day = purchase.getCreatedAt() != null ? purchase.getCreatedAt().toLocalDate() : null;
+            BigDecimal total = purchase.getTotal();
+            afterCommit(() -> metrics.orderAdded(delta, day, total));
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.events;
+
+/**
+ * Publishes live (SSE) events to the subscribers of every application node.
+ * <p>
+ * Selected with {@code app.events.bus}: {@code in-process} (default, single node) delivers
+ * straight to this node's {@link com.example.demo.service.SseDispatcher}; {@code outbox}
+ * also shares the event with the other nodes through the database ({@link OutboxEventBus}).
+ * Each node only writes to the clients connected to it.
+ */
+public interface EventBus {
+
+    /**
+     * Publishes an event.
+     *
+     * @param channel the channel (e.g. {@code chat:42})
+     * @param name    the SSE event name
+     * @param data    the event data (must be serializable to JSON for the outbox bus)
+     */
+    void publish(String channel, String name, Object data);
+}
@@ -0,0 +1,24 @@
+package com.example.demo.events;
+
+import com.example.demo.service.SseDispatcher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-node event bus: delivers events to this node's subscribers only.
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.bus", havingValue = "in-process", matchIfMissing = true)
+public class InProcessEventBus implements EventBus {
+
+    private final SseDispatcher dispatcher;
+
+    public InProcessEventBus(SseDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void publish(String channel, String name, Object data) {
+        dispatcher.publish(channel, name, data);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.events;
+
+import com.example.demo.model.MessageEntry;
+import com.example.demo.service.MessageSearchIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps {@link MessageSearchIndex} in step with saved and deleted
+ * chat messages. Changes are applied once the surrounding transaction commits.
+ */
+@Component
+public class MessageSearchListener {
+
+    /** Resolved on first use, for the same reason as in {@link AccountSearchListener}. */
+    private final ObjectProvider<MessageSearchIndex> index;
+
+    public MessageSearchListener(ObjectProvider<MessageSearchIndex> index) {
+        this.index = index;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(MessageEntry message) {
+        if (message.getConversation() == null) {
+            return;
+        }
+        Long id = message.getId();
+        Long conversationId = message.getConversation().getId();
+        String content = message.getContent();
+        afterCommit(() -> index.getObject().put(id, conversationId, content));
+    }
+
+    @PostRemove
+    public void onRemove(MessageEntry message) {
+        Long id = message.getId();
+        afterCommit(() -> index.getObject().remove(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.events;
+
+import com.example.demo.model.OutboxEvent;
+import com.example.demo.repository.OutboxEventRepository;
+import com.example.demo.service.SseDispatcher;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Multi-node event bus backed by the {@code event_outbox} table.
+ * <p>
+ * An event is delivered to this node's subscribers at once and written to the outbox.
+ * Every node polls the outbox every {@code app.events.outbox.poll-ms} for rows above its
+ * high-water mark and delivers the ones published by other nodes to its own subscribers.
+ * Concurrent inserts may commit out of ID order, so every ID skipped below the mark is kept
+ * in a gap list and looked up again on each poll, until its row shows up or
+ * {@code app.events.outbox.gap-timeout-ms} passes (its transaction rolled back, or
+ * committed later than any event is worth delivering). Rows older than
+ * {@code app.events.outbox.retention-ms} are purged.
+ * <p>
+ * To try it on one machine, start two instances on the same MySQL database with
+ * {@code app.events.bus=outbox} and different {@code server.port} values.
+ */
+@Component
+@ConditionalOnProperty(name = "app.events.bus", havingValue = "outbox")
+public class OutboxEventBus implements EventBus {
+
+    /** Maximum number of rows read per poll. */
+    private static final int BATCH_SIZE = 500;
+
+    /** Most gap IDs looked up per poll, and most kept (the oldest are given up beyond that). */
+    private static final int GAP_BATCH = 500;
+    private static final int MAX_GAPS = 10_000;
+
+    private final SseDispatcher dispatcher;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final long retentionMillis;
+    private final long gapTimeoutMillis;
+
+    /** Largest ID read so far (-1 until the first poll). */
+    private long highWaterMark = -1;
+    /** IDs below the mark whose rows have not been read yet -> when the gap was found, oldest first. */
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    public OutboxEventBus(SseDispatcher dispatcher,
+                          OutboxEventRepository outboxEventRepository,
+                          ObjectMapper objectMapper,
+                          @Value("${app.events.node-id:}") String nodeId,
+                          @Value("${app.events.outbox.retention-ms:60000}") long retentionMillis,
+                          @Value("${app.events.outbox.gap-timeout-ms:10000}") long gapTimeoutMillis) {
+        this.dispatcher = dispatcher;
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.retentionMillis = retentionMillis;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        System.out.println("✅ Outbox event bus started as node " + this.nodeId);
+    }
+
+    @Override
+    public void publish(String channel, String name, Object data) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException ex) {
+            System.out.println("⚠️ Event dropped, data cannot be encoded: " + ex.getMessage());
+            return;
+        }
+        // Encoded once: the same JSON goes to local subscribers and to the outbox
+        dispatcher.publishJson(channel, name, json);
+
+        OutboxEvent event = new OutboxEvent();
+        event.setNodeId(nodeId);
+        event.setChannel(channel);
+        event.setEventName(name);
+        event.setCreatedAt(new Date());
+        event.setPayload(new String(json, StandardCharsets.UTF_8));
+        try {
+            outboxEventRepository.save(event);
+        } catch (RuntimeException ex) {
+            // Local subscribers already have it; other nodes' clients catch up on reconnect
+            System.out.println("⚠️ Could not write event to the outbox: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Delivers the events published by other nodes since the last poll, including rows that
+     * committed late into a gap below the high-water mark.
+     */
+    @Scheduled(fixedDelayString = "${app.events.outbox.poll-ms:250}")
+    public synchronized void poll() {
+        if (highWaterMark < 0) {
+            // Start from the current end; older events are served by SSE catch-up
+            highWaterMark = outboxEventRepository.findMaxId();
+            return;
+        }
+        long now = System.currentTimeMillis();
+
+        if (!gaps.isEmpty()) {
+            List<Long> ids = new ArrayList<>(GAP_BATCH);
+            for (Iterator<Long> it = gaps.keySet().iterator(); it.hasNext() && ids.size() < GAP_BATCH; ) {
+                ids.add(it.next());
+            }
+            for (OutboxEvent event : outboxEventRepository.findByIdIn(ids)) {
+                gaps.remove(event.getId());
+                deliver(event);
+            }
+            gaps.values().removeIf(foundAt -> now - foundAt > gapTimeoutMillis);
+        }
+
+        List<OutboxEvent> batch = outboxEventRepository.findByIdGreaterThanOrderByIdAsc(highWaterMark, PageRequest.of(0, BATCH_SIZE));
+        for (OutboxEvent event : batch) {
+            for (long id = Math.max(highWaterMark + 1, event.getId() - MAX_GAPS); id < event.getId(); id++) {
+                gaps.put(id, now);
+            }
+            highWaterMark = event.getId();
+            deliver(event);
+        }
+        if (gaps.size() > MAX_GAPS) {
+            System.out.println("⚠️ " + (gaps.size() - MAX_GAPS) + " outbox gaps given up (too many open).");
+            Iterator<Long> it = gaps.keySet().iterator();
+            while (gaps.size() > MAX_GAPS) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Deletes outbox rows that every node has had time to read.
+     */
+    @Scheduled(fixedDelayString = "${app.events.outbox.retention-ms:60000}")
+    public void purge() {
+        outboxEventRepository.deleteCreatedBefore(new Date(System.currentTimeMillis() - retentionMillis));
+    }
+
+    /**
+     * Hands an event published by another node to this node's subscribers.
+     */
+    private void deliver(OutboxEvent event) {
+        if (!nodeId.equals(event.getNodeId())) {
+            dispatcher.publishJson(event.getChannel(), event.getEventName(),
+                    event.getPayload().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
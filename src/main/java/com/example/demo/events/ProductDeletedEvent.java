@@ -0,0 +1,27 @@
+package com.example.demo.events;
+
+/**
+ * Application event triggered when an admin deletes a product.
+ */
+public class ProductDeletedEvent {
+    // The ID of the deleted product
+    private final Long productId;
+
+    /**
+     * Constructs a new event for a deleted product.
+     *
+     * @param productId the ID of the deleted product
+     */
+    public ProductDeletedEvent(Long productId) {
+        this.productId = productId;
+    }
+
+    /**
+     * Returns the ID of the deleted product.
+     *
+     * @return the product ID
+     */
+    public Long getProductId() {
+        return productId;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.events;
+
+import com.example.demo.model.Purchase;
+
+/**
+ * Application event triggered when a purchase has been placed at checkout.
+ * Listeners typically react after the checkout transaction commits
+ * (in-memory analytics, caches, live dashboards, etc.).
+ */
+public class PurchaseCreatedEvent {
+    // The newly saved Purchase instance (line items included)
+    private final Purchase purchase;
+
+    /**
+     * Constructs a new event with the given purchase.
+     *
+     * @param purchase the newly saved purchase
+     */
+    public PurchaseCreatedEvent(Purchase purchase) {
+        this.purchase = purchase;
+    }
+
+    /**
+     * Returns the purchase associated with this event.
+     *
+     * @return the new Purchase
+     */
+    public Purchase getPurchase() {
+        return purchase;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.events;
+
+import com.example.demo.model.Purchase;
+import com.example.demo.model.StatusType;
+
+/**
+ * Application event triggered when an admin changes the status of an order.
+ */
+public class PurchaseStatusChangedEvent {
+    // The purchase whose status changed (already carrying the new status)
+    private final Purchase purchase;
+    // The status before the change (may be null)
+    private final StatusType oldStatus;
+
+    /**
+     * Constructs a new event for a status change.
+     *
+     * @param purchase  the updated purchase
+     * @param oldStatus the previous status, or null if there was none
+     */
+    public PurchaseStatusChangedEvent(Purchase purchase, StatusType oldStatus) {
+        this.purchase = purchase;
+        this.oldStatus = oldStatus;
+    }
+
+    /**
+     * Returns the purchase associated with this event.
+     *
+     * @return the updated Purchase
+     */
+    public Purchase getPurchase() {
+        return purchase;
+    }
+
+    /**
+     * Returns the status the purchase had before the change.
+     *
+     * @return the previous StatusType, or null
+     */
+    public StatusType getOldStatus() {
+        return oldStatus;
+    }
+}
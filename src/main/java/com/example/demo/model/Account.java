@@ -1,5 +1,7 @@
 package com.example.demo.model;
 
+import com.example.demo.events.AccountSearchListener;
+import com.example.demo.events.DashboardMetricsListener;
 import jakarta.persistence.*;
 import java.util.Date;
 
@@ -9,6 +11,7 @@ import java.util.Date;
  */
 @Entity
 @Table(name = "account")
+@EntityListeners({DashboardMetricsListener.class, AccountSearchListener.class})
 public class Account {
 
     /** Primary key: Unique account ID, generated automatically. */
@@ -0,0 +1,52 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.util.Date;
+
+/**
+ * A persisted HyperLogLog sketch, stored as a small byte blob.
+ * Maps to the 'cardinality_sketch' table in the database.
+ *
+ * Keys look like {@code customers:day:2024-07-08} (distinct customers per day)
+ * or {@code buyers:product:42} (distinct buyers of a product).
+ */
+@Entity
+@Table(name = "cardinality_sketch")
+public class CardinalitySketch {
+
+    /** Primary key: Unique identifier for each sketch. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Unique sketch key (what is being counted). */
+    @Column(name = "sketch_key", nullable = false, unique = true, length = 64)
+    private String sketchKey;
+
+    /** Serialized HyperLogLog registers. */
+    @Column(name = "registers", nullable = false, columnDefinition = "BLOB")
+    private byte[] registers;
+
+    /** Timestamp of the last update. */
+    @Column(name = "updated_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedAt;
+
+    /** Default constructor required by JPA. */
+    public CardinalitySketch() {}
+
+    // ---------- Getters & Setters ----------
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getSketchKey() { return sketchKey; }
+    public void setSketchKey(String sketchKey) { this.sketchKey = sketchKey; }
+
+    public byte[] getRegisters() { return registers; }
+    public void setRegisters(byte[] registers) { this.registers = registers; }
+
+    public Date getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Date updatedAt) { this.updatedAt = updatedAt; }
+}
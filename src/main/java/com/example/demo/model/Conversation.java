@@ -1,7 +1,10 @@
 package com.example.demo.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.example.demo.events.DashboardMetricsListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 import java.util.*;
 
 /**
@@ -9,6 +12,12 @@ import java.util.*;
  * Stores messages and the last updated timestamp.
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_conversation_last_updated", columnList = "last_updated, id"),
+        @Index(name = "idx_conversation_deleted_at", columnList = "deleted_at")
+})
+@SQLRestriction("deleted_at IS NULL")
+@EntityListeners(DashboardMetricsListener.class)
 public class Conversation {
 
     /** Primary key: Unique identifier for the conversation. */
@@ -33,6 +42,32 @@ public class Conversation {
     @Temporal(TemporalType.TIMESTAMP)
     private Date lastUpdated;
 
+    /**
+     * Number of user messages the admin has not read yet.
+     * Only changed through atomic UPDATE queries in ConversationRepository,
+     * so saving a (possibly stale) Conversation never overwrites it.
+     */
+    @Column(name = "unread_by_admin", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private int unreadByAdmin;
+
+    /**
+     * Read watermark of the admin: ID of the newest message the admin has seen.
+     * User messages with a larger ID are unread. Advanced with a single UPDATE
+     * in ConversationRepository, like {@link #unreadByAdmin}.
+     */
+    @Column(name = "admin_read_message_id", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    private long adminReadMessageId;
+
+    /**
+     * Time the conversation was deleted (null while it exists). Deleted conversations are
+     * hidden from every query and purged with their messages by ConversationPurgeService.
+     */
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "deleted_at", updatable = false)
+    private Date deletedAt;
+
     // ---------- Getters & Setters ----------
 
     /** Gets the conversation ID. */
@@ -69,4 +104,19 @@ public class Conversation {
     public void setLastUpdated(Date lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
+
+    /** Gets the number of user messages the admin has not read yet. */
+    public int getUnreadByAdmin() {
+        return unreadByAdmin;
+    }
+
+    /** Gets the ID of the newest message the admin has read (0 if none). */
+    public long getAdminReadMessageId() {
+        return adminReadMessageId;
+    }
+
+    /** Gets the time the conversation was deleted, or null. */
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
 }
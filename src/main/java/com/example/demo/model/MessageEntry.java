@@ -1,5 +1,6 @@
 package com.example.demo.model;
 
+import com.example.demo.events.MessageSearchListener;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import java.util.Date;
@@ -9,6 +10,8 @@ import java.util.Date;
  * Can be sent by either a customer (user) or an admin.
  */
 @Entity
+@EntityListeners(MessageSearchListener.class)
+@Table(indexes = @Index(name = "idx_message_conversation_sent_at", columnList = "conversation_id, sent_at"))
 public class MessageEntry {
 
     /** Primary key: Unique identifier for each message entry. */
@@ -39,7 +42,10 @@ public class MessageEntry {
     /** Flag indicating if this message was sent by an admin. */
     private boolean fromAdmin;
 
-    /** Flag indicating if this message has been read by an admin. */
+    /**
+     * Legacy per-message read flag. Read state is now the conversation's watermark
+     * ({@link Conversation#getAdminReadMessageId()}); the flag is only used once to seed it.
+     */
     private boolean readByAdmin = false;
 
     // ---------- Getters and Setters ----------
@@ -49,6 +55,11 @@ public class MessageEntry {
         return id;
     }
 
+    /** Sets the ID of a message written with a preassigned ID (see ChatMessageWriter). */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     /** Gets the conversation linked to this message. */
     public Conversation getConversation() {
         return conversation;
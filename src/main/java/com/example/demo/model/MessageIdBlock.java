@@ -0,0 +1,48 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Next free chat message ID for the write-behind writer, which reserves IDs in blocks
+ * so messages can be broadcast with their ID before they are inserted.
+ * Maps to the 'message_id_block' table, which holds a single row.
+ */
+@Entity
+@Table(name = "message_id_block")
+public class MessageIdBlock {
+
+    /** ID of the single row. */
+    public static final int SINGLETON_ID = 1;
+
+    /** Primary key: always {@link #SINGLETON_ID}. */
+    @Id
+    private Integer id;
+
+    /** First ID not reserved yet. */
+    @Column(name = "next_id", nullable = false)
+    private long nextId;
+
+    // Default constructor (required by JPA)
+    public MessageIdBlock() {}
+
+    // Constructor for the single row
+    public MessageIdBlock(long nextId) {
+        this.id = SINGLETON_ID;
+        this.nextId = nextId;
+    }
+
+    /** Gets the row ID. */
+    public Integer getId() {
+        return id;
+    }
+
+    /** Gets the first ID not reserved yet. */
+    public long getNextId() {
+        return nextId;
+    }
+
+    /** Sets the first ID not reserved yet. */
+    public void setNextId(long nextId) {
+        this.nextId = nextId;
+    }
+}
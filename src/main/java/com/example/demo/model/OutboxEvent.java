@@ -0,0 +1,64 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.util.Date;
+
+/**
+ * A live event (e.g. a chat message) written by one application node so the other nodes
+ * can deliver it to their own SSE subscribers.
+ * Maps to the 'event_outbox' table in the database; rows are purged after a short retention.
+ */
+@Entity
+@Table(name = "event_outbox", indexes = @Index(name = "idx_event_outbox_created_at", columnList = "created_at"))
+public class OutboxEvent {
+
+    /** Primary key: increasing ID, used by the nodes as their read position. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** ID of the node that published the event (it has already delivered it locally). */
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    /** SSE channel (e.g. {@code chat:42}). */
+    @Column(name = "channel", nullable = false, length = 64)
+    private String channel;
+
+    /** SSE event name (e.g. {@code chat}). */
+    @Column(name = "event_name", nullable = false, length = 32)
+    private String eventName;
+
+    /** Event data as JSON. */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /** Timestamp when the event was published. */
+    @Column(name = "created_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdAt;
+
+    /** Default constructor required by JPA. */
+    public OutboxEvent() {}
+
+    // ---------- Getters & Setters ----------
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getNodeId() { return nodeId; }
+    public void setNodeId(String nodeId) { this.nodeId = nodeId; }
+
+    public String getChannel() { return channel; }
+    public void setChannel(String channel) { this.channel = channel; }
+
+    public String getEventName() { return eventName; }
+    public void setEventName(String eventName) { this.eventName = eventName; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public Date getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Date createdAt) { this.createdAt = createdAt; }
+}
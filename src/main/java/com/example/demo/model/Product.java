@@ -1,5 +1,6 @@
 package com.example.demo.model;
 
+import com.example.demo.events.DashboardMetricsListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.util.List;
@@ -10,6 +11,7 @@ import java.util.List;
  */
 @Entity
 @Table(name = "product")
+@EntityListeners(DashboardMetricsListener.class)
 public class Product {
 
     /** View-only flag: Indicates if the product has been reviewed by the user. Not stored in the database. */
@@ -0,0 +1,62 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Per-product daily sales rollup: one row per (product, day) holding the units sold
+ * and the revenue computed from each line item's unit price at purchase time.
+ * Maps to the 'product_sales_daily' table in the database.
+ *
+ * Rows are written at checkout, so top-products analytics range-sum this table
+ * instead of joining every LineItem to Product and Purchase.
+ */
+@Entity
+@Table(name = "product_sales_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_sales_daily_product_day", columnNames = {"product_id", "`day`"}),
+        indexes = @Index(name = "idx_product_sales_daily_day", columnList = "`day`"))
+public class ProductSalesDaily {
+
+    /** Primary key: Unique identifier for each rollup row. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** ID of the product sold. Stored as a plain column; rows are removed with the product. */
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /** Calendar day (server time zone) on which the purchases were created. Quoted: DAY is reserved in H2. */
+    @Column(name = "`day`", nullable = false)
+    private LocalDate day;
+
+    /** Units sold on this day. */
+    @Column(name = "qty", nullable = false)
+    private long qty;
+
+    /** Sum of quantity * unit price for this day. */
+    @Column(name = "revenue", precision = 14, scale = 2, nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    /** Default constructor required by JPA. */
+    public ProductSalesDaily() {}
+
+    // ---------- Getters & Setters ----------
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public long getQty() { return qty; }
+    public void setQty(long qty) { this.qty = qty; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.model;
 
+import com.example.demo.events.DashboardMetricsListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -12,6 +13,7 @@ import java.util.List;
  */
 @Entity
 @Table(name = "purchase")
+@EntityListeners(DashboardMetricsListener.class)
 public class Purchase {
 
     /** Full name provided during checkout. */
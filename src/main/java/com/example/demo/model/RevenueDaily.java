@@ -0,0 +1,64 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Daily revenue rollup: one row per (day, status) holding the number of orders
+ * and the summed purchase totals for that bucket.
+ * Maps to the 'revenue_daily' table in the database.
+ *
+ * Rows are maintained incrementally at checkout and on order status changes,
+ * so revenue charts read O(days) rows instead of scanning the purchase table.
+ */
+@Entity
+@Table(name = "revenue_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_revenue_daily_day_status", columnNames = {"`day`", "status_id"}))
+public class RevenueDaily {
+
+    /** Primary key: Unique identifier for each rollup row. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Calendar day (server time zone) on which the purchases were created. Quoted: DAY is reserved in H2. */
+    @Column(name = "`day`", nullable = false)
+    private LocalDate day;
+
+    /**
+     * Status ID of the purchases counted in this row.
+     * Stored as a plain column (0 = no status) so the unique key also covers purchases without a status.
+     */
+    @Column(name = "status_id", nullable = false)
+    private Long statusId;
+
+    /** Number of purchases in this bucket. */
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    /** Sum of purchase totals in this bucket. */
+    @Column(name = "revenue", precision = 14, scale = 2, nullable = false)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    /** Default constructor required by JPA. */
+    public RevenueDaily() {}
+
+    // ---------- Getters & Setters ----------
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public Long getStatusId() { return statusId; }
+    public void setStatusId(Long statusId) { this.statusId = statusId; }
+
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+}
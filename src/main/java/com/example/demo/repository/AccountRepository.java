@@ -1,7 +1,11 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Account;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,4 +23,11 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     //  Support partial email search for admin user list
     List<Account> findByEmailContainingIgnoreCase(String email);
+
+    //  Paged substring search on username and email (used until the search index is built)
+    Page<Account> findByUsernameContainingIgnoreCaseAndEmailContainingIgnoreCase(String username, String email, Pageable pageable);
+
+    //  Projection { id, username, email } in ID order, used to build AccountSearchIndex
+    @Query("SELECT a.id, a.username, a.email FROM Account a WHERE a.id > :afterId ORDER BY a.id")
+    List<Object[]> findSearchFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,41 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.CardinalitySketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for persisted HyperLogLog sketches.
+ */
+public interface CardinalitySketchRepository extends JpaRepository<CardinalitySketch, Long> {
+
+    /**
+     * Loads several sketches by key in one query.
+     *
+     * @param keys The sketch keys to load.
+     * @return The sketches that exist (missing keys are simply absent).
+     */
+    List<CardinalitySketch> findBySketchKeyIn(Collection<String> keys);
+
+    /**
+     * Inserts or replaces the registers of a sketch.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO cardinality_sketch (sketch_key, registers, updated_at) " +
+            "VALUES (:key, :registers, NOW()) " +
+            "ON DUPLICATE KEY UPDATE registers = :registers, updated_at = NOW()",
+            nativeQuery = true)
+    int upsert(@Param("key") String key, @Param("registers") byte[] registers);
+
+    /**
+     * Deletes the sketch with the given key (e.g. when its product is deleted).
+     */
+    @Modifying
+    @Query("DELETE FROM CardinalitySketch s WHERE s.sketchKey = :key")
+    int deleteBySketchKey(@Param("key") String key);
+}
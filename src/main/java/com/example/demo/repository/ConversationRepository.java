@@ -2,9 +2,16 @@ package com.example.demo.repository;
 
 import com.example.demo.model.Conversation;
 import com.example.demo.model.Account;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -21,4 +28,153 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
      * @return A list of conversations linked to the given user.
      */
     List<Conversation> findByUser(Account user);
+
+    /**
+     * One keyset page of the admin conversation list, newest activity first.
+     * Rows come after the cursor (afterTime, afterId) in (lastUpdated desc, id desc) order,
+     * so each page is an index range scan on (last_updated, id) however deep the admin scrolls.
+     *
+     * @param username  Username prefix, or null for all users.
+     * @param from      Earliest lastUpdated to include.
+     * @param to        lastUpdated upper bound (exclusive).
+     * @param afterTime lastUpdated of the last row of the previous page.
+     * @param afterId   ID of the last row of the previous page.
+     * @param pageable  The page size (page number must be 0).
+     * @return Conversations with their user fetched.
+     */
+    @Query("SELECT c FROM Conversation c LEFT JOIN FETCH c.user u " +
+            "WHERE (:username IS NULL OR u.username LIKE CONCAT(:username, '%')) " +
+            "AND c.lastUpdated >= :from AND c.lastUpdated < :to " +
+            "AND (c.lastUpdated < :afterTime OR (c.lastUpdated = :afterTime AND c.id < :afterId)) " +
+            "ORDER BY c.lastUpdated DESC, c.id DESC")
+    List<Conversation> findAdminPage(@Param("username") String username,
+                                     @Param("from") Date from,
+                                     @Param("to") Date to,
+                                     @Param("afterTime") Date afterTime,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
+
+    /**
+     * IDs of the conversations passing the admin list's username prefix and date filters,
+     * used to restrict a keyword search to them.
+     */
+    @Query("SELECT c.id FROM Conversation c LEFT JOIN c.user u " +
+            "WHERE (:username IS NULL OR u.username LIKE CONCAT(:username, '%')) " +
+            "AND c.lastUpdated >= :from AND c.lastUpdated < :to")
+    List<Long> findAdminIds(@Param("username") String username,
+                            @Param("from") Date from,
+                            @Param("to") Date to);
+
+    /**
+     * Same as {@link #findAdminPage} restricted to the given conversations (keyword search results).
+     */
+    @Query("SELECT c FROM Conversation c LEFT JOIN FETCH c.user u " +
+            "WHERE c.id IN :ids " +
+            "AND (:username IS NULL OR u.username LIKE CONCAT(:username, '%')) " +
+            "AND c.lastUpdated >= :from AND c.lastUpdated < :to " +
+            "AND (c.lastUpdated < :afterTime OR (c.lastUpdated = :afterTime AND c.id < :afterId)) " +
+            "ORDER BY c.lastUpdated DESC, c.id DESC")
+    List<Conversation> findAdminPageWithin(@Param("ids") Collection<Long> ids,
+                                           @Param("username") String username,
+                                           @Param("from") Date from,
+                                           @Param("to") Date to,
+                                           @Param("afterTime") Date afterTime,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+
+    /**
+     * Advances the admin's read watermark of a conversation and recounts the user messages
+     * past it (normally none), in one statement whatever the number of messages read.
+     *
+     * @param id   The conversation ID.
+     * @param upTo ID of the newest message the admin has seen.
+     * @return The number of updated rows (0 if the watermark was already there).
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE conversation c " +
+            "SET c.admin_read_message_id = :upTo, " +
+            "    c.unread_by_admin = (SELECT COUNT(*) FROM message_entry m " +
+            "                         WHERE m.conversation_id = c.id AND m.from_admin = FALSE AND m.id > :upTo) " +
+            "WHERE c.id = :id AND c.admin_read_message_id < :upTo",
+            nativeQuery = true)
+    int markReadByAdmin(@Param("id") Long id, @Param("upTo") long upTo);
+
+    /**
+     * Reads a conversation's unread counter and locks its row until the transaction ends.
+     *
+     * @return the counter, or null if the conversation does not exist
+     */
+    @Query(value = "SELECT unread_by_admin FROM conversation WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Long lockUnreadByAdmin(@Param("id") Long id);
+
+    /**
+     * Soft-deletes a conversation: it disappears at once, the purge job removes it later.
+     *
+     * @param id  The conversation ID.
+     * @param now The deletion time.
+     * @return The number of updated rows (0 if it does not exist or is already deleted).
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE conversation SET deleted_at = :now WHERE id = :id AND deleted_at IS NULL",
+            nativeQuery = true)
+    int markDeleted(@Param("id") Long id, @Param("now") Date now);
+
+    /**
+     * IDs of soft-deleted conversations, longest deleted first.
+     *
+     * @param limit Maximum number of IDs.
+     */
+    @Query(value = "SELECT id FROM conversation WHERE deleted_at IS NOT NULL ORDER BY deleted_at LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findDeletedIds(@Param("limit") int limit);
+
+    /**
+     * Removes soft-deleted conversations whose messages are gone.
+     *
+     * @param ids The conversation IDs.
+     * @return The number of deleted rows.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM conversation WHERE id IN (:ids) AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purgeDeleted(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sums the stored unread counters of all conversations (used to detect drift at startup).
+     */
+    @Query("SELECT COALESCE(SUM(c.unreadByAdmin), 0) FROM Conversation c")
+    long sumUnreadByAdmin();
+
+    /**
+     * Recomputes every conversation's unread counter as the user messages past its read
+     * watermark (repair after upgrades or manual data changes).
+     *
+     * @return The number of updated rows.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE conversation c " +
+            "SET c.unread_by_admin = (SELECT COUNT(*) FROM message_entry m " +
+            "                         WHERE m.conversation_id = c.id AND m.from_admin = FALSE " +
+            "                           AND m.id > c.admin_read_message_id)",
+            nativeQuery = true)
+    int repairUnreadByAdmin();
+
+    /**
+     * Seeds the read watermarks of conversations that have none from the legacy
+     * per-message read flags (the newest user message an admin had read).
+     *
+     * @return The number of updated rows.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE conversation c " +
+            "SET c.admin_read_message_id = (SELECT COALESCE(MAX(m.id), 0) FROM message_entry m " +
+            "                               WHERE m.conversation_id = c.id AND m.from_admin = FALSE " +
+            "                                 AND m.read_by_admin = TRUE) " +
+            "WHERE c.admin_read_message_id = 0",
+            nativeQuery = true)
+    int seedAdminReadWatermarks();
 }
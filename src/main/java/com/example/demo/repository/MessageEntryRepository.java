@@ -2,9 +2,16 @@ package com.example.demo.repository;
 
 import com.example.demo.model.MessageEntry;
 import com.example.demo.model.Conversation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -23,18 +30,94 @@ public interface MessageEntryRepository extends JpaRepository<MessageEntry, Long
     List<MessageEntry> findByConversationOrderBySentAtAsc(Conversation conversation);
 
     /**
-     * Counts the number of unread messages in a conversation sent by the user (not admin).
+     * Newest messages of a conversation (first page of the history), newest first.
      *
-     * @param conversation The conversation to check.
-     * @return The count of unread user messages.
+     * @param conversationId The conversation ID.
+     * @param pageable       The page size.
+     * @return Up to one page of messages ordered by sent time and ID (descending).
      */
-    long countByConversationAndFromAdminFalseAndReadByAdminFalse(Conversation conversation);
+    @Query("SELECT m FROM MessageEntry m LEFT JOIN FETCH m.sender " +
+            "WHERE m.conversation.id = :conversationId " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageEntry> findLatest(@Param("conversationId") Long conversationId, Pageable pageable);
 
     /**
-     * Retrieves all unread messages in a conversation sent by the user (not admin).
+     * Messages of a conversation older than a (sentAt, id) cursor, newest first.
      *
-     * @param conversation The conversation to search in.
-     * @return A list of unread user message entries.
+     * @param conversationId The conversation ID.
+     * @param beforeTime     sentAt of the oldest message already shown.
+     * @param beforeId       ID of the oldest message already shown.
+     * @param pageable       The page size.
+     * @return Up to one page of older messages ordered by sent time and ID (descending).
+     */
+    @Query("SELECT m FROM MessageEntry m LEFT JOIN FETCH m.sender " +
+            "WHERE m.conversation.id = :conversationId " +
+            "AND (m.sentAt < :beforeTime OR (m.sentAt = :beforeTime AND m.id < :beforeId)) " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageEntry> findOlder(@Param("conversationId") Long conversationId,
+                                 @Param("beforeTime") Date beforeTime,
+                                 @Param("beforeId") Long beforeId,
+                                 Pageable pageable);
+
+    /**
+     * Messages of a conversation sent after a given time, oldest first (SSE catch-up after a reconnect).
+     *
+     * @param conversationId The conversation ID.
+     * @param since          Only messages sent after this time are returned.
+     * @param pageable       The maximum number of messages.
+     * @return Messages ordered by sent time and ID (ascending).
+     */
+    @Query("SELECT m FROM MessageEntry m LEFT JOIN FETCH m.sender " +
+            "WHERE m.conversation.id = :conversationId AND m.sentAt > :since " +
+            "ORDER BY m.sentAt ASC, m.id ASC")
+    List<MessageEntry> findSentAfter(@Param("conversationId") Long conversationId,
+                                     @Param("since") Date since,
+                                     Pageable pageable);
+
+    /**
+     * Counts all user messages (not admin) past their conversation's admin read watermark.
+     *
+     * @return The total count of unread user messages.
+     */
+    @Query("SELECT COUNT(m) FROM MessageEntry m WHERE m.fromAdmin = false " +
+            "AND m.id > m.conversation.adminReadMessageId AND m.conversation.deletedAt IS NULL")
+    long countUnreadByAdmin();
+
+    /**
+     * @return The largest message ID (0 if there are no messages).
+     */
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM MessageEntry m")
+    long findMaxId();
+
+    /**
+     * Deletes up to {@code limit} messages of the given conversations in one statement
+     * (used by the throttled purge of deleted conversations).
+     *
+     * @return The number of deleted rows.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM message_entry WHERE conversation_id IN (:conversationIds) LIMIT :limit",
+            nativeQuery = true)
+    int deleteBatchByConversationIds(@Param("conversationIds") Collection<Long> conversationIds,
+                                     @Param("limit") int limit);
+
+    /**
+     * Projection { id, conversationId, content } in ID order, used to build MessageSearchIndex.
+     *
+     * @param afterId  Only messages with a larger ID are returned.
+     * @param pageable The batch size.
+     * @return One batch of rows.
+     */
+    @Query("SELECT m.id, m.conversation.id, m.content FROM MessageEntry m WHERE m.id > :afterId ORDER BY m.id")
+    List<Object[]> findSearchFieldsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Projection { id, content } of the given messages, used for MessageSearchIndex snippets.
+     *
+     * @param ids The message IDs.
+     * @return One row per message that still exists.
      */
-    List<MessageEntry> findByConversationAndFromAdminFalseAndReadByAdminFalse(Conversation conversation);
+    @Query("SELECT m.id, m.content FROM MessageEntry m WHERE m.id IN :ids")
+    List<Object[]> findContentsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,25 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.MessageIdBlock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for the message ID block row used by the write-behind chat writer.
+ */
+public interface MessageIdBlockRepository extends JpaRepository<MessageIdBlock, Integer> {
+
+    /**
+     * Reads the row and locks it until the transaction ends, so two reservations never overlap.
+     *
+     * @param id The row ID ({@link MessageIdBlock#SINGLETON_ID}).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM MessageIdBlock b WHERE b.id = :id")
+    Optional<MessageIdBlock> findForUpdate(@Param("id") Integer id);
+}
@@ -0,0 +1,53 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Repository interface for the cross-node event outbox.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Events with an ID above the given one, in ID order.
+     *
+     * @param afterId  Only events with a larger ID are returned.
+     * @param pageable The batch size.
+     * @return One batch of events.
+     */
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Events with the given IDs (used to look up gaps below the high-water mark).
+     *
+     * @param ids The event IDs.
+     * @return The events that exist.
+     */
+    List<OutboxEvent> findByIdIn(Collection<Long> ids);
+
+    /**
+     * @return The largest event ID (0 if the outbox is empty).
+     */
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM OutboxEvent e")
+    long findMaxId();
+
+    /**
+     * Deletes the events published before a given time.
+     *
+     * @param cutoff Events older than this are deleted.
+     * @return The number of deleted rows.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Date cutoff);
+}
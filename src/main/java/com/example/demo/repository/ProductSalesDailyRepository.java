@@ -0,0 +1,89 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ProductSalesDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for the {@link ProductSalesDaily} rollup.
+ * Top-products queries return rows as { productName, quantity, revenue, productId }
+ * and only touch the rollup rows inside the requested day range.
+ */
+public interface ProductSalesDailyRepository extends JpaRepository<ProductSalesDaily, Long> {
+
+    /**
+     * Atomically adds units/revenue to a (product, day) bucket, creating the row if needed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_sales_daily (product_id, `day`, qty, revenue) " +
+            "VALUES (:productId, :day, :qty, :revenue) " +
+            "ON DUPLICATE KEY UPDATE qty = qty + :qty, revenue = revenue + :revenue",
+            nativeQuery = true)
+    int addToDay(@Param("productId") Long productId,
+                 @Param("day") LocalDate day,
+                 @Param("qty") long qty,
+                 @Param("revenue") BigDecimal revenue);
+
+    //  Removes every rollup row (first half of a rebuild)
+    @Modifying
+    @Query(value = "DELETE FROM product_sales_daily", nativeQuery = true)
+    int deleteAllRows();
+
+    //  Recomputes every rollup row from line items, priced at their unit price (second half of a rebuild)
+    @Modifying
+    @Query(value = "INSERT INTO product_sales_daily (product_id, `day`, qty, revenue) " +
+            "SELECT li.product_id, DATE(p.created_at), SUM(li.quantity), SUM(li.quantity * li.unit_price) " +
+            "FROM line_item li JOIN purchase p ON p.id = li.purchase_id " +
+            "WHERE p.created_at IS NOT NULL " +
+            "GROUP BY li.product_id, DATE(p.created_at)",
+            nativeQuery = true)
+    int rebuildFromLineItems();
+
+    /**
+     * Deletes all rollup rows of a product (used when the product itself is deleted).
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProductSalesDaily s WHERE s.productId = :productId")
+    void deleteByProductId(@Param("productId") Long productId);
+
+    //  Sorted by quantity
+    @Query("SELECT p.name, SUM(s.qty), SUM(s.revenue), p.id " +
+            "FROM ProductSalesDaily s, Product p " +
+            "WHERE p.id = s.productId AND s.day >= :startDay AND LOWER(p.name) LIKE %:search% " +
+            "GROUP BY p.id, p.name " +
+            "ORDER BY SUM(s.qty) DESC")
+    List<Object[]> findTopSellingSortedByQuantity(@Param("startDay") LocalDate startDay,
+                                                  @Param("search") String search);
+
+    //  Sorted by name
+    @Query("SELECT p.name, SUM(s.qty), SUM(s.revenue), p.id " +
+            "FROM ProductSalesDaily s, Product p " +
+            "WHERE p.id = s.productId AND s.day >= :startDay AND LOWER(p.name) LIKE %:search% " +
+            "GROUP BY p.id, p.name " +
+            "ORDER BY p.name ASC")
+    List<Object[]> findTopSellingSortedByName(@Param("startDay") LocalDate startDay,
+                                              @Param("search") String search);
+
+    //  Sorted by revenue
+    @Query("SELECT p.name, SUM(s.qty), SUM(s.revenue), p.id " +
+            "FROM ProductSalesDaily s, Product p " +
+            "WHERE p.id = s.productId AND s.day >= :startDay AND LOWER(p.name) LIKE %:search% " +
+            "GROUP BY p.id, p.name " +
+            "ORDER BY SUM(s.revenue) DESC")
+    List<Object[]> findTopSellingSortedByRevenue(@Param("startDay") LocalDate startDay,
+                                                 @Param("search") String search);
+
+    //  Per-day rows { productId, productName, day, qty, revenue } since a given day (used to warm TopProductsSketch)
+    @Query("SELECT s.productId, p.name, s.day, s.qty, s.revenue " +
+            "FROM ProductSalesDaily s, Product p " +
+            "WHERE p.id = s.productId AND s.day >= :startDay")
+    List<Object[]> findDailySalesSince(@Param("startDay") LocalDate startDay);
+}
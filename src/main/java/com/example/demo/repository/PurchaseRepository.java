@@ -2,12 +2,14 @@ package com.example.demo.repository;
 
 import com.example.demo.model.Account;
 import com.example.demo.model.Purchase;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
 
@@ -38,6 +40,10 @@ public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
             "ORDER BY FUNCTION('DATE_FORMAT', p.createdAt, '%Y-%m-%d')")
     List<Object[]> findRevenueByStatus(@Param("status") String status);
 
+    //  One order with its line items (and their products), for the order details pages
+    @Query("SELECT DISTINCT p FROM Purchase p LEFT JOIN FETCH p.lineItems WHERE p.id = :id")
+    Optional<Purchase> findWithLineItemsById(@Param("id") Long id);
+
     //  All orders by account
     List<Purchase> findByAccount(Account account);
 
@@ -119,5 +125,23 @@ public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
     @Query("SELECT DATE(p.createdAt), SUM(p.total) FROM Purchase p GROUP BY DATE(p.createdAt) ORDER BY DATE(p.createdAt)")
     List<Object[]> sumRevenueByDate();
 
+    //  Column projection { id, createdAt, total, statusId } in ID order, used to load PurchaseColumnStore
+    @Query("SELECT p.id, p.createdAt, p.total, s.id " +
+            "FROM Purchase p LEFT JOIN p.status s " +
+            "WHERE p.id > :afterId " +
+            "ORDER BY p.id")
+    List<Object[]> findColumnsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    //  Buyer projection { id, accountId, createdAt, productId } per line item (productId null without items)
+    //  for purchases with afterId < id <= toId, used to backfill CustomerCardinalityService
+    @Query("SELECT p.id, p.account.id, p.createdAt, pr.id " +
+            "FROM Purchase p LEFT JOIN p.lineItems li LEFT JOIN li.product pr " +
+            "WHERE p.id > :afterId AND p.id <= :toId AND p.createdAt IS NOT NULL")
+    List<Object[]> findBuyersBetween(@Param("afterId") Long afterId, @Param("toId") Long toId);
+
+    //  Largest purchase ID (0 when there are none)
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Purchase p")
+    long findMaxId();
+
 
 }
@@ -0,0 +1,90 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.RevenueDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for the {@link RevenueDaily} rollup.
+ * All read queries filter and group on the indexed {@code day} column,
+ * so their cost grows with the number of days rather than the number of orders.
+ */
+public interface RevenueDailyRepository extends JpaRepository<RevenueDaily, Long> {
+
+    /**
+     * Atomically adds orders/revenue to a (day, status) bucket, creating the row if needed.
+     * Negative values are used to move a purchase out of a bucket when its status changes.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO revenue_daily (`day`, status_id, order_count, revenue) " +
+            "VALUES (:day, :statusId, :orders, :revenue) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + :orders, revenue = revenue + :revenue",
+            nativeQuery = true)
+    int addToDay(@Param("day") LocalDate day,
+                 @Param("statusId") Long statusId,
+                 @Param("orders") long orders,
+                 @Param("revenue") BigDecimal revenue);
+
+    //  Removes every rollup row (first half of a rebuild)
+    @Modifying
+    @Query(value = "DELETE FROM revenue_daily", nativeQuery = true)
+    int deleteAllRows();
+
+    //  Recomputes every rollup row from the purchase table (second half of a rebuild)
+    @Modifying
+    @Query(value = "INSERT INTO revenue_daily (`day`, status_id, order_count, revenue) " +
+            "SELECT DATE(p.created_at), COALESCE(p.status_id, 0), COUNT(*), COALESCE(SUM(p.total), 0) " +
+            "FROM purchase p " +
+            "WHERE p.created_at IS NOT NULL " +
+            "GROUP BY DATE(p.created_at), COALESCE(p.status_id, 0)",
+            nativeQuery = true)
+    int rebuildFromPurchases();
+
+    //  Monthly revenue grouped by year-month (all statuses)
+    @Query("SELECT FUNCTION('DATE_FORMAT', r.day, '%Y-%m'), SUM(r.revenue) " +
+            "FROM RevenueDaily r " +
+            "GROUP BY FUNCTION('DATE_FORMAT', r.day, '%Y-%m') " +
+            "ORDER BY FUNCTION('DATE_FORMAT', r.day, '%Y-%m')")
+    List<Object[]> findMonthlyRevenue();
+
+    //  Daily revenue since a given day (all statuses)
+    @Query("SELECT r.day, SUM(r.revenue) " +
+            "FROM RevenueDaily r " +
+            "WHERE r.day >= :startDay " +
+            "GROUP BY r.day " +
+            "ORDER BY r.day")
+    List<Object[]> findRevenueSince(@Param("startDay") LocalDate startDay);
+
+    //  Daily revenue since a given day for one status label
+    @Query("SELECT r.day, SUM(r.revenue) " +
+            "FROM RevenueDaily r, StatusType s " +
+            "WHERE s.id = r.statusId AND r.day >= :startDay AND s.label = :status " +
+            "GROUP BY r.day " +
+            "ORDER BY r.day")
+    List<Object[]> findRevenueByStatusSince(@Param("startDay") LocalDate startDay, @Param("status") String status);
+
+    //  Daily revenue for one status label (all time)
+    @Query("SELECT r.day, SUM(r.revenue) " +
+            "FROM RevenueDaily r, StatusType s " +
+            "WHERE s.id = r.statusId AND s.label = :status " +
+            "GROUP BY r.day " +
+            "ORDER BY r.day")
+    List<Object[]> findRevenueByStatus(@Param("status") String status);
+
+    //  Daily revenue across all statuses (all time)
+    @Query("SELECT r.day, SUM(r.revenue) " +
+            "FROM RevenueDaily r " +
+            "GROUP BY r.day " +
+            "ORDER BY r.day")
+    List<Object[]> sumRevenueByDate();
+
+    //  Total revenue of a single day across all statuses
+    @Query("SELECT COALESCE(SUM(r.revenue), 0) FROM RevenueDaily r WHERE r.day = :day")
+    BigDecimal sumRevenueForDay(@Param("day") LocalDate day);
+}
@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import com.example.demo.config.WorkloadContext;
+import com.example.demo.config.WorkloadType;
+import com.example.demo.model.Account;
+import com.example.demo.repository.AccountRepository;
+import com.example.demo.util.TrigramIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Substring search over account usernames and emails for the admin user list,
+ * backed by an in-memory {@link TrigramIndex}.
+ * <p>
+ * The index is built in the background at startup and kept current by
+ * {@link com.example.demo.events.AccountSearchListener} after accounts are created,
+ * changed or deleted. Until it is built, callers should fall back to the database.
+ */
+@Service
+public class AccountSearchIndex {
+
+    /** Number of accounts read per batch while building. */
+    private static final int LOAD_BATCH = 10_000;
+
+    private final AccountRepository accountRepository;
+    private final TrigramIndex index = new TrigramIndex(2);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    /** Accounts put or removed while the build runs (null otherwise); guarded by the lock. */
+    private Set<Long> changedDuringBuild;
+
+    /**
+     * Constructor-based dependency injection for AccountRepository.
+     *
+     * @param accountRepository The repository used to build the index.
+     */
+    public AccountSearchIndex(AccountRepository accountRepository) {
+        this.accountRepository = accountRepository;
+    }
+
+    /**
+     * Starts building the index in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(() -> WorkloadContext.runAs(WorkloadType.REPORTING, this::build),
+                "account-search-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Reads all accounts in ID order, batch by batch. A batch is read before taking the lock,
+     * so accounts put or removed by the listener since the build started are skipped rather
+     * than overwritten (or re-added) from a stale batch.
+     */
+    void build() {
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long afterId = 0L;
+        List<Object[]> batch;
+        do {
+            batch = accountRepository.findSearchFieldsAfter(afterId, PageRequest.of(0, LOAD_BATCH));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : batch) {
+                    afterId = (Long) row[0];
+                    if (!changedDuringBuild.contains(afterId)) {
+                        index.put(afterId, (String) row[1], (String) row[2]);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (batch.size() == LOAD_BATCH);
+
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        ready = true;
+        System.out.println("✅ Account search index built (" + index.size() + " accounts).");
+    }
+
+    /**
+     * Checks whether the initial build has completed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds or re-indexes an account.
+     */
+    public void put(Account account) {
+        lock.writeLock().lock();
+        try {
+            index.put(account.getId(), account.getUsername(), account.getEmail());
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(account.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted account.
+     */
+    public void remove(Long accountId) {
+        lock.writeLock().lock();
+        try {
+            index.remove(accountId);
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(accountId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of account IDs matching both filters, best matches first
+     * (exact, then prefix, then substring matches).
+     *
+     * @param username substring of the username (blank = any)
+     * @param email    substring of the email (blank = any)
+     * @param page     zero-based page number
+     * @param size     page size
+     */
+    public TrigramIndex.Page search(String username, String email, int page, int size) {
+        lock.readLock().lock();
+        try {
+            return index.search(new String[]{username, email}, page * size, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.demo.service;
+
+import com.example.demo.events.ProductDeletedEvent;
+import com.example.demo.events.PurchaseCreatedEvent;
+import com.example.demo.events.PurchaseStatusChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for the heavy admin analytics queries (revenue chart, top products).
+ * <ul>
+ *     <li>Entries are keyed by (query, time window, status, search, sortBy).</li>
+ *     <li>Concurrent misses for the same key are coalesced: one caller loads, the others wait for its result.</li>
+ *     <li>Entries expire after a TTL and are dropped whenever a purchase or a status change commits.
+ *     Expired entries are swept every {@code app.analytics.cache-sweep-ms}, and at most
+ *     {@code app.analytics.cache-max-entries} are kept (free-text searches make many distinct keys);
+ *     when the cache is full, results are loaded without being cached.</li>
+ *     <li>Loaders run in a read-only transaction, so they are served by the read replica when one is configured.</li>
+ * </ul>
+ */
+@Service
+public class AnalyticsQueryCache {
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder uncached = new LongAdder();
+
+    /**
+     * @param ttlSeconds         how long a cached result stays valid ({@code app.analytics.cache-ttl-seconds}, default 60)
+     * @param maxEntries         most results cached at once ({@code app.analytics.cache-max-entries}, default 1000)
+     * @param transactionManager used to run loaders in a read-only transaction
+     */
+    public AnalyticsQueryCache(@Value("${app.analytics.cache-ttl-seconds:60}") long ttlSeconds,
+                               @Value("${app.analytics.cache-max-entries:1000}") int maxEntries,
+                               PlatformTransactionManager transactionManager) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Returns the cached rows for a key, loading them with {@code loader} on a miss.
+     * Only one concurrent caller runs the loader for a given key.
+     *
+     * @param key    cache key describing the query and its filters
+     * @param loader the query to run on a miss
+     * @return an unmodifiable list of rows
+     */
+    public List<Object[]> get(Key key, Supplier<List<Object[]>> loader) {
+        long now = System.nanoTime();
+        Entry current = entries.get(key);
+        if (current != null && current.isValid(now, generation.get())) {
+            hits.increment();
+            return await(current);
+        }
+        if (current == null && entries.size() >= maxEntries && sweep() == 0) {
+            // Full of live results: answer this one without caching it
+            uncached.increment();
+            return List.copyOf(readOnlyTransaction.execute(status -> loader.get()));
+        }
+
+        Entry fresh = new Entry(now + ttlNanos, generation.get());
+        Entry winner = entries.compute(key, (k, cur) ->
+                cur != null && cur.isValid(now, fresh.generation) ? cur : fresh);
+
+        if (winner != fresh) {
+            // Someone else is already loading (or just loaded) this key
+            coalesced.increment();
+            return await(winner);
+        }
+
+        misses.increment();
+        try {
+            List<Object[]> rows = List.copyOf(readOnlyTransaction.execute(status -> loader.get()));
+            fresh.result.complete(rows);
+            return rows;
+        } catch (RuntimeException ex) {
+            entries.remove(key, fresh);
+            fresh.result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Drops every cached result. In-flight loads started before the call are not reused afterwards.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+        invalidations.increment();
+    }
+
+    /**
+     * Removes expired entries and those of an older generation.
+     *
+     * @return the number of entries removed
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.cache-sweep-ms:60000}")
+    public int sweep() {
+        long now = System.nanoTime();
+        long currentGeneration = generation.get();
+        int before = entries.size();
+        entries.values().removeIf(entry -> !entry.isValid(now, currentGeneration));
+        return Math.max(0, before - entries.size());
+    }
+
+    /**
+     * Invalidates the cache once a checkout has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handlePurchaseCreated(PurchaseCreatedEvent ev) {
+        invalidateAll();
+    }
+
+    /**
+     * Invalidates the cache once an order status change has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleStatusChanged(PurchaseStatusChangedEvent ev) {
+        invalidateAll();
+    }
+
+    /**
+     * Invalidates the cache once a product deletion has committed, dropping its top-products rows.
+     * Not done inside the delete transaction, where a concurrent loader could still read and
+     * cache the rows about to be deleted.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleProductDeleted(ProductDeletedEvent ev) {
+        invalidateAll();
+    }
+
+    /**
+     * Returns hit/miss counters for monitoring.
+     */
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum() + coalesced.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("hits", hits.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("misses", missCount);
+        stats.put("invalidations", invalidations.sum());
+        stats.put("uncached", uncached.sum());
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    private static List<Object[]> await(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Cache key: query name plus every filter that changes its result.
+     */
+    public static final class Key {
+        private final String query;
+        private final Object window;
+        private final String status;
+        private final String search;
+        private final String sortBy;
+
+        public Key(String query, Object window, String status, String search, String sortBy) {
+            this.query = query;
+            this.window = window;
+            this.status = status;
+            this.search = search;
+            this.sortBy = sortBy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return query.equals(other.query)
+                    && Objects.equals(window, other.window)
+                    && Objects.equals(status, other.status)
+                    && Objects.equals(search, other.search)
+                    && Objects.equals(sortBy, other.sortBy);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, window, status, search, sortBy);
+        }
+    }
+
+    /**
+     * A (possibly still loading) cached result with its expiry time and cache generation.
+     */
+    private static final class Entry {
+        private final CompletableFuture<List<Object[]>> result = new CompletableFuture<>();
+        private final long expiresAt;
+        private final long generation;
+
+        Entry(long expiresAt, long generation) {
+            this.expiresAt = expiresAt;
+            this.generation = generation;
+        }
+
+        boolean isValid(long now, long currentGeneration) {
+            return generation == currentGeneration && now - expiresAt < 0;
+        }
+    }
+}
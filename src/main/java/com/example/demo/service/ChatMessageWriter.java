@@ -0,0 +1,309 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Conversation;
+import com.example.demo.model.MessageEntry;
+import com.example.demo.model.MessageIdBlock;
+import com.example.demo.repository.MessageEntryRepository;
+import com.example.demo.repository.MessageIdBlockRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Persists chat messages, either synchronously or write-behind ({@code app.chat.write-mode}).
+ * <p>
+ * {@code strict} (default) saves each message through JPA before it is broadcast, as before.
+ * {@code write-behind} gives the message an ID from a block reserved in {@link MessageIdBlock},
+ * queues it and returns at once, so it can be broadcast immediately. Every {@code app.chat.flush-ms}
+ * the queue is written with one JDBC batch insert plus one UPDATE per conversation (its newest
+ * {@code lastUpdated} and the number of new user messages). A flush that fails on a database error
+ * is retried on the next run. Queued messages are flushed at shutdown, but lost if the process dies.
+ * <p>
+ * Write-behind is for a single node: message IDs must increase with send time for the admin read
+ * watermark and the {@code (sentAt, id)} paging cursor, and blocks reserved by several nodes
+ * would interleave. It therefore refuses to start with {@code app.events.bus=outbox}.
+ * Every chat message must then be written through this class, so that no auto-increment ID
+ * falls into a reserved block.
+ */
+@Service
+public class ChatMessageWriter {
+
+    /** IDs reserved per round trip to {@code message_id_block}. */
+    private static final int ID_BLOCK = 1000;
+
+    /** Maximum number of messages written per batch. */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Moves a conversation's lastUpdated to its newest message and counts its new user messages.
+     * Parameters: newest sentAt (twice), new user messages, conversation ID.
+     * Deleted conversations are left alone.
+     */
+    private static final String UPDATE_CONVERSATION =
+            "UPDATE conversation SET last_updated = GREATEST(COALESCE(last_updated, ?), ?), " +
+                    "unread_by_admin = unread_by_admin + ? WHERE id = ? AND deleted_at IS NULL";
+
+    /**
+     * A written message and its conversation's unread-by-admin count right after the write.
+     * In write-behind mode the count is the stored one plus the queued user messages, which can be
+     * off by a message while a flush commits.
+     */
+    public record Written(MessageEntry message, int unreadByAdmin) {
+    }
+
+    private final MessageEntryRepository messageEntryRepository;
+    private final MessageIdBlockRepository messageIdBlockRepository;
+    private final UnreadCounterService unreadCounterService;
+    private final MessageSearchIndex messageSearchIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean writeBehind;
+    private final BlockingQueue<MessageEntry> queue;
+
+    /** Messages taken from the queue and not yet committed (retried first after a failure). */
+    private volatile List<MessageEntry> inFlight = List.of();
+    /** Guards the ID block, apart from flushes so senders never wait for one. */
+    private final Object idLock = new Object();
+    private long nextId;
+    private long blockEnd;
+
+    public ChatMessageWriter(MessageEntryRepository messageEntryRepository,
+                             MessageIdBlockRepository messageIdBlockRepository,
+                             UnreadCounterService unreadCounterService,
+                             MessageSearchIndex messageSearchIndex,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.chat.write-mode:strict}") String writeMode,
+                             @Value("${app.chat.queue-capacity:10000}") int queueCapacity,
+                             @Value("${app.events.bus:in-process}") String eventBus) {
+        this.messageEntryRepository = messageEntryRepository;
+        this.messageIdBlockRepository = messageIdBlockRepository;
+        this.unreadCounterService = unreadCounterService;
+        this.messageSearchIndex = messageSearchIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeBehind = "write-behind".equalsIgnoreCase(writeMode);
+        if (writeBehind && "outbox".equalsIgnoreCase(eventBus)) {
+            throw new IllegalStateException(
+                    "app.chat.write-mode=write-behind runs on a single node and cannot be used with app.events.bus=outbox");
+        }
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        if (writeBehind) {
+            System.out.println("✅ Chat messages are written behind (flushed in batches).");
+        }
+    }
+
+    /**
+     * Writes a new message: inserts it, counts it as unread when a user sent it and moves the
+     * conversation's {@code lastUpdated} to it. In write-behind mode only the ID is assigned now.
+     *
+     * @param message a new message with its conversation, sender, content, sentAt and fromAdmin set
+     * @return the message, with its ID, and the conversation's new unread count
+     */
+    public Written write(MessageEntry message) {
+        Conversation conversation = message.getConversation();
+        conversation.setLastUpdated(message.getSentAt());
+
+        if (!writeBehind) {
+            // One transaction: the message and its conversation's counters are stored together
+            int[] updated = new int[1];
+            int[] unread = new int[1];
+            MessageEntry saved = transactionTemplate.execute(status -> {
+                MessageEntry entry = messageEntryRepository.save(message);
+                Timestamp sentAt = new Timestamp(entry.getSentAt().getTime());
+                updated[0] = jdbcTemplate.update(UPDATE_CONVERSATION,
+                        sentAt, sentAt, entry.isFromAdmin() ? 0 : 1, conversation.getId());
+                if (updated[0] > 0) {
+                    // Row still locked by the UPDATE: this is the count the write produced
+                    unread[0] = jdbcTemplate.queryForObject(
+                            "SELECT unread_by_admin FROM conversation WHERE id = ?", Integer.class, conversation.getId());
+                }
+                return entry;
+            });
+            if (!saved.isFromAdmin() && updated[0] > 0) {
+                unreadCounterService.chatMessageReceived();
+            }
+            return new Written(saved, unread[0]);
+        }
+
+        message.setId(allocateId());
+        while (!queue.offer(message)) {
+            // Database behind by a full queue: write on this thread until there is room
+            flush();
+        }
+        if (!message.isFromAdmin()) {
+            unreadCounterService.chatMessageReceived();
+        }
+        int queuedUnread = (int) pending(conversation.getId()).stream().filter(m -> !m.isFromAdmin()).count();
+        return new Written(message, conversation.getUnreadByAdmin() + queuedUnread);
+    }
+
+    /**
+     * Returns the messages of a conversation that are not in the database yet, oldest first,
+     * so pages rendered right after sending still show them.
+     */
+    public List<MessageEntry> pending(Long conversationId) {
+        List<MessageEntry> pending = new ArrayList<>();
+        if (!writeBehind) {
+            return pending;
+        }
+        for (MessageEntry message : inFlight) {
+            if (message.getConversation().getId().equals(conversationId)) {
+                pending.add(message);
+            }
+        }
+        for (MessageEntry message : queue) {
+            if (message.getConversation().getId().equals(conversationId)) {
+                pending.add(message);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Writes the queued messages in batches (write-behind mode only).
+     */
+    @Scheduled(fixedDelayString = "${app.chat.flush-ms:10}")
+    public synchronized void flush() {
+        if (!writeBehind) {
+            return;
+        }
+        while (true) {
+            List<MessageEntry> batch = new ArrayList<>(inFlight);
+            queue.drainTo(batch, BATCH_SIZE - batch.size());
+            if (batch.isEmpty()) {
+                return;
+            }
+            inFlight = batch;
+            try {
+                writeBatch(batch);
+                inFlight = List.of();
+            } catch (DataIntegrityViolationException ex) {
+                // A conversation was purged meanwhile (or similar): write the other rows one by one
+                List<MessageEntry> retry = new ArrayList<>();
+                for (MessageEntry message : batch) {
+                    if (!writeAlone(message)) {
+                        retry.add(message);
+                    }
+                }
+                inFlight = retry;
+                if (!retry.isEmpty()) {
+                    System.out.println("⚠️ Chat flush failed, retrying " + retry.size() + " messages.");
+                    return;
+                }
+            } catch (DataAccessException ex) {
+                System.out.println("⚠️ Chat flush failed, retrying " + batch.size() + " messages: " + ex.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Writes one message of a batch that violated a constraint.
+     *
+     * @return false if it failed for another reason (lock timeout, lost connection...) and must be retried
+     */
+    private boolean writeAlone(MessageEntry message) {
+        try {
+            writeBatch(List.of(message));
+        } catch (DataIntegrityViolationException ex) {
+            // Cannot ever be written, e.g. its conversation was purged
+            System.out.println("⚠️ Chat message " + message.getId() + " dropped: " + ex.getMessage());
+        } catch (DataAccessException ex) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Inserts the messages and updates their conversations in one transaction,
+     * then adds them to the search index.
+     */
+    private void writeBatch(List<MessageEntry> batch) {
+        // Conversation ID -> { newest sentAt, new user messages }
+        Map<Long, long[]> updates = new LinkedHashMap<>();
+        for (MessageEntry message : batch) {
+            long[] update = updates.computeIfAbsent(message.getConversation().getId(), id -> new long[2]);
+            update[0] = Math.max(update[0], message.getSentAt().getTime());
+            update[1] += message.isFromAdmin() ? 0 : 1;
+        }
+        List<Map.Entry<Long, long[]>> conversations = new ArrayList<>(updates.entrySet());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO message_entry (id, conversation_id, sender_id, content, sent_at, from_admin, read_by_admin) " +
+                            "VALUES (?, ?, ?, ?, ?, ?, FALSE)",
+                    batch, batch.size(), (PreparedStatement ps, MessageEntry message) -> {
+                        ps.setLong(1, message.getId());
+                        ps.setLong(2, message.getConversation().getId());
+                        if (message.getSender() != null && message.getSender().getId() != null) {
+                            ps.setLong(3, message.getSender().getId());
+                        } else {
+                            ps.setNull(3, Types.BIGINT);
+                        }
+                        ps.setString(4, message.getContent());
+                        ps.setTimestamp(5, new Timestamp(message.getSentAt().getTime()));
+                        ps.setBoolean(6, message.isFromAdmin());
+                    });
+            jdbcTemplate.batchUpdate(UPDATE_CONVERSATION,
+                    conversations, conversations.size(), (PreparedStatement ps, Map.Entry<Long, long[]> entry) -> {
+                        Timestamp newest = new Timestamp(entry.getValue()[0]);
+                        ps.setTimestamp(1, newest);
+                        ps.setTimestamp(2, newest);
+                        ps.setLong(3, entry.getValue()[1]);
+                        ps.setLong(4, entry.getKey());
+                    });
+        });
+
+        for (MessageEntry message : batch) {
+            messageSearchIndex.put(message.getId(), message.getConversation().getId(), message.getContent());
+        }
+    }
+
+    private long allocateId() {
+        synchronized (idLock) {
+            if (nextId >= blockEnd) {
+                reserveBlock();
+            }
+            return nextId++;
+        }
+    }
+
+    /**
+     * Reserves the next {@value #ID_BLOCK} message IDs. The block starts after both the last
+     * reserved block and the largest existing message ID (messages written in strict mode).
+     */
+    private void reserveBlock() {
+        long start = transactionTemplate.execute(status -> {
+            MessageIdBlock block = messageIdBlockRepository.findForUpdate(MessageIdBlock.SINGLETON_ID)
+                    .orElseGet(() -> new MessageIdBlock(1));
+            long first = Math.max(block.getNextId(), messageEntryRepository.findMaxId() + 1);
+            block.setNextId(first + ID_BLOCK);
+            messageIdBlockRepository.save(block);
+            return first;
+        });
+        nextId = start;
+        blockEnd = start + ID_BLOCK;
+    }
+}
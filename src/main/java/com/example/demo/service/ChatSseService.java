@@ -1,65 +1,74 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.ChatMessageDTO;
+import com.example.demo.events.EventBus;
+import com.example.demo.model.MessageEntry;
+import com.example.demo.repository.MessageEntryRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Service class for managing Server-Sent Events (SSE) emitters related to chat conversations.
  * Handles registration of emitters and broadcasting chat messages in real time.
+ * Delivery is asynchronous through the {@link SseDispatcher}, one channel per conversation.
+ * Clients that reconnect after a longer gap than the dispatcher buffers are caught up from the messages table,
+ * or told to reload when they missed more than {@value #MAX_CATCH_UP} messages.
  */
 @Service
 public class ChatSseService {
 
-    /**
-     * Stores lists of SseEmitters mapped by conversation ID.
-     * Uses thread-safe collections to handle concurrent access.
-     */
-    private final Map<Long, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    /** Maximum number of messages sent to one reconnecting client from the database. */
+    private static final int MAX_CATCH_UP = 200;
+
+    private final SseDispatcher dispatcher;
+    private final EventBus eventBus;
+
+    // Constructor injection of the dispatcher that owns the emitters, the bus that reaches every node
+    // and the messages used for catch-up
+    public ChatSseService(SseDispatcher dispatcher, EventBus eventBus, MessageEntryRepository messageEntryRepository) {
+        this.dispatcher = dispatcher;
+        this.eventBus = eventBus;
+        dispatcher.registerCatchUp("chat:", "chat", (channel, since) -> {
+            // One more than sent: finding it means the client would be left with a gap
+            List<MessageEntry> missed = messageEntryRepository.findSentAfter(
+                    Long.valueOf(channel.substring("chat:".length())), since, PageRequest.of(0, MAX_CATCH_UP + 1));
+            if (missed.size() > MAX_CATCH_UP) {
+                return null;
+            }
+            return missed.stream().map(ChatMessageDTO::from).toList();
+        });
+    }
 
     /**
      * Registers a new SseEmitter for a specific conversation ID.
      * This allows the client to receive real-time chat updates.
      *
      * @param conversationId The conversation ID to listen for.
+     * @param lastEventId    The client's Last-Event-ID header (null on a first connect).
      * @return A new SseEmitter instance.
      */
-    public SseEmitter register(Long conversationId) {
-        SseEmitter emitter = new SseEmitter(0L); // Never timeout
-        emitters.computeIfAbsent(conversationId, id -> new CopyOnWriteArrayList<>())
-                .add(emitter);
-
-        emitter.onCompletion(() ->
-                emitters.getOrDefault(conversationId, List.of()).remove(emitter));
-        emitter.onTimeout(() ->
-                emitters.getOrDefault(conversationId, List.of()).remove(emitter));
-
-        return emitter;
+    public SseEmitter register(Long conversationId, Long lastEventId) {
+        return dispatcher.subscribe(channel(conversationId), lastEventId);
     }
 
     /**
-     * Sends data to all registered emitters for a specific conversation ID.
-     * Automatically removes any emitters that fail to send (e.g., disconnected clients).
+     * Queues data for all registered emitters of a specific conversation ID, on every node.
+     * Returns immediately; slow or disconnected clients are evicted by the dispatcher.
      *
      * @param conversationId The conversation ID to broadcast to.
      * @param data           The data object to send as an SSE event.
      */
     public void send(Long conversationId, Object data) {
-        List<SseEmitter> list = emitters.get(conversationId);
-        if (list == null) {
-            return;
-        }
-        for (SseEmitter emitter : list) {
-            try {
-                emitter.send(SseEmitter.event().name("chat").data(data));
-            } catch (IOException ex) {
-                list.remove(emitter); // Remove dead connection
-            }
-        }
+        eventBus.publish(channel(conversationId), "chat", data);
+    }
+
+    /**
+     * @return the dispatcher channel (stream topic) of a conversation
+     */
+    public static String channel(Long conversationId) {
+        return "chat:" + conversationId;
     }
 }
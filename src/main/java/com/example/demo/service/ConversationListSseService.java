@@ -1,54 +1,86 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.ConversationSummaryDTO;
+import com.example.demo.events.EventBus;
+import com.example.demo.model.Conversation;
+import com.example.demo.repository.ConversationRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.transaction.event.TransactionPhase;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * SSE hub that pushes newly created conversations to all open admin dashboards.
  * Manages registration of emitters and broadcasting events when new conversations are created.
+ * Dashboards that reconnect after a longer gap than the dispatcher buffers are sent the
+ * conversations updated in the meantime.
  */
 @Service
 public class ConversationListSseService {
 
+    /** Dispatcher channel of the admin conversation list. */
+    public static final String CHANNEL = "conversations";
+
+    /** Maximum number of conversations sent to one reconnecting dashboard from the database. */
+    private static final int MAX_CATCH_UP = 100;
+
+    /** Upper bound for the catch-up query (9999-12-31, still a valid DATETIME). */
+    private static final Date FAR_FUTURE = new Date(253402300799000L);
+
+    private final SseDispatcher dispatcher;
+    private final EventBus eventBus;
+
+    // Constructor injection of the dispatcher that owns the emitters, the bus that reaches every node
+    // and the conversations used for catch-up
+    public ConversationListSseService(SseDispatcher dispatcher, EventBus eventBus,
+                                      ConversationRepository conversationRepository) {
+        this.dispatcher = dispatcher;
+        this.eventBus = eventBus;
+        dispatcher.registerCatchUp(CHANNEL, "conversation", (channel, since) -> {
+            List<Conversation> updated = new ArrayList<>(conversationRepository.findAdminPage(
+                    null, since, FAR_FUTURE, FAR_FUTURE, Long.MAX_VALUE, PageRequest.of(0, MAX_CATCH_UP)));
+            Collections.reverse(updated); // oldest first
+            return updated.stream().map(ConversationSummaryDTO::from).toList();
+        });
+    }
+
     /**
-     * Thread-safe list holding all active emitters subscribed to conversation updates.
+     * Registers a new SseEmitter for an admin dashboard.
+     * The dispatcher cleans up emitters when clients disconnect, time out or fall behind.
+     *
+     * @param lastEventId The client's Last-Event-ID header (null on a first connect).
+     * @return A new SseEmitter instance.
      */
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    public SseEmitter addEmitter(Long lastEventId) {
+        return dispatcher.subscribe(CHANNEL, lastEventId);
+    }
 
     /**
-     * Registers a new SseEmitter and keeps it alive indefinitely for admin dashboards.
-     * Cleans up emitters when clients disconnect or time out.
+     * Queues a conversation summary for all connected emitters, on every node, and returns immediately.
      *
-     * @return A new SseEmitter instance.
+     * @param conversation The new or updated conversation.
      */
-    public SseEmitter addEmitter() {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitters.add(emitter);
-        return emitter;
+    public void send(Conversation conversation) {
+        send(conversation, null);
     }
 
     /**
-     * Broadcasts a payload to all currently connected emitters.
-     * Automatically removes any dead emitters.
+     * Queues a conversation summary that shows the start of its last message.
      *
-     * @param payload The data to send as an SSE event.
+     * @param conversation  The updated conversation.
+     * @param lastMessage   Content of its newest message.
+     * @param unreadByAdmin Its unread count after that message was written (the entity's may be older).
      */
-    public void send(Object payload) {
-        for (SseEmitter emitter : emitters) {
-            try {
-                emitter.send(SseEmitter.event().name("conversation").data(payload));
-            } catch (IOException ex) {
-                emitters.remove(emitter); // Remove dead connection
-            }
-        }
+    public void send(Conversation conversation, String lastMessage, int unreadByAdmin) {
+        ConversationSummaryDTO dto = ConversationSummaryDTO.from(conversation, lastMessage);
+        dto.setUnreadCount(unreadByAdmin);
+        eventBus.publish(CHANNEL, "conversation", dto);
     }
 
     /**
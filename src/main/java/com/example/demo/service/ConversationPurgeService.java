@@ -0,0 +1,109 @@
+package com.example.demo.service;
+
+import com.example.demo.config.WorkloadContext;
+import com.example.demo.config.WorkloadType;
+import com.example.demo.model.Conversation;
+import com.example.demo.repository.ConversationRepository;
+import com.example.demo.repository.MessageEntryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Deletes conversations in two steps: a soft-delete flag set in the request, then a throttled
+ * background purge of the flagged conversations and their messages.
+ * <p>
+ * Every {@code app.conversations.purge-pause-ms} the purge runs one set-based
+ * {@code DELETE ... WHERE conversation_id IN (...) LIMIT n} of at most
+ * {@code app.conversations.purge-batch} messages, over up to {@value #CONVERSATIONS_PER_PURGE}
+ * deleted conversations at a time. Once their messages are gone the conversation rows go too.
+ * One small statement per interval keeps a large cleanup from loading the database.
+ */
+@Service
+public class ConversationPurgeService {
+
+    /** Deleted conversations purged together. */
+    private static final int CONVERSATIONS_PER_PURGE = 100;
+
+    private final ConversationRepository conversationRepository;
+    private final MessageEntryRepository messageEntryRepository;
+    private final UnreadCounterService unreadCounterService;
+    private final MessageSearchIndex messageSearchIndex;
+    private final DashboardMetrics dashboardMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    /** Conversations being purged, and the messages deleted so far. */
+    private List<Long> purging = List.of();
+    private long purgedMessages;
+
+    public ConversationPurgeService(ConversationRepository conversationRepository,
+                                    MessageEntryRepository messageEntryRepository,
+                                    UnreadCounterService unreadCounterService,
+                                    MessageSearchIndex messageSearchIndex,
+                                    DashboardMetrics dashboardMetrics,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.conversations.purge-batch:1000}") int batchSize) {
+        this.conversationRepository = conversationRepository;
+        this.messageEntryRepository = messageEntryRepository;
+        this.unreadCounterService = unreadCounterService;
+        this.messageSearchIndex = messageSearchIndex;
+        this.dashboardMetrics = dashboardMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Soft-deletes a conversation with one locked UPDATE. It is hidden from then on and its unread
+     * messages, search entries and dashboard count are dropped right away.
+     *
+     * @param conversation the conversation to delete
+     * @return false if it was already deleted
+     */
+    public boolean delete(Conversation conversation) {
+        // Counter read under the row lock, in the soft-delete's transaction: messages written
+        // meanwhile are either counted here or skipped by the writer's deleted_at check
+        Long unread = transactionTemplate.execute(status -> {
+            Long locked = conversationRepository.lockUnreadByAdmin(conversation.getId());
+            if (locked == null || conversationRepository.markDeleted(conversation.getId(), new Date()) == 0) {
+                return null;
+            }
+            return locked;
+        });
+        if (unread == null) {
+            return false;
+        }
+        unreadCounterService.chatMessagesRead(unread);
+        messageSearchIndex.removeConversation(conversation.getId());
+        dashboardMetrics.conversationAdded(-1);
+        return true;
+    }
+
+    /**
+     * Runs one purge step (see the class comment).
+     */
+    @Scheduled(fixedDelayString = "${app.conversations.purge-pause-ms:200}")
+    public synchronized void purgeStep() {
+        WorkloadContext.runAs(WorkloadType.REPORTING, () -> {
+            if (purging.isEmpty()) {
+                purging = conversationRepository.findDeletedIds(CONVERSATIONS_PER_PURGE);
+                purgedMessages = 0;
+                if (purging.isEmpty()) {
+                    return;
+                }
+            }
+            int rows = messageEntryRepository.deleteBatchByConversationIds(purging, batchSize);
+            purgedMessages += rows;
+            if (rows < batchSize) {
+                int conversations = conversationRepository.purgeDeleted(purging);
+                System.out.println("✅ Purged " + conversations + " deleted conversations (" + purgedMessages + " messages).");
+                purging = List.of();
+            }
+        });
+    }
+}
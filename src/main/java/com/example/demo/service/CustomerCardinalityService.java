@@ -0,0 +1,296 @@
+package com.example.demo.service;
+
+import com.example.demo.events.PurchaseCreatedEvent;
+import com.example.demo.model.CardinalitySketch;
+import com.example.demo.model.LineItem;
+import com.example.demo.model.Purchase;
+import com.example.demo.repository.CardinalitySketchRepository;
+import com.example.demo.repository.PurchaseRepository;
+import com.example.demo.util.HyperLogLog;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates distinct customers per day/week/month and distinct buyers per product
+ * with mergeable {@link HyperLogLog} sketches instead of COUNT(DISTINCT ...) queries.
+ * <p>
+ * One sketch is kept per day ({@code customers:day:yyyy-MM-dd}) and per product
+ * ({@code buyers:product:id}). They are updated after each checkout commits and
+ * persisted as small blobs; multi-day counts are the union of the daily sketches.
+ * Loaded sketches are cached in memory; day sketches older than {@value #CACHED_DAYS} days are
+ * dropped from the cache once a day (they stay in the database), and at most
+ * {@value #CACHED_PRODUCTS} product sketches are kept, least recently used dropped first.
+ * Past days known to have no sketch are remembered, so they are not looked up again.
+ * Purchases from before the sketches existed are added by {@link #backfill()}.
+ */
+@Service
+public class CustomerCardinalityService {
+
+    private static final String DAY_PREFIX = "customers:day:";
+    private static final String PRODUCT_PREFIX = "buyers:product:";
+
+    /** Days kept in the cache: the dashboard's longest window is the current month. */
+    private static final int CACHED_DAYS = 62;
+
+    /**
+     * Product sketches kept in the cache (about 2 KB each). Far more than the products of one
+     * checkout, so a sketch is not dropped between being loaded and written back.
+     */
+    private static final int CACHED_PRODUCTS = 2000;
+
+    /** Purchase IDs read per backfill query. */
+    private static final int BACKFILL_BATCH = 10_000;
+
+    private final CardinalitySketchRepository cardinalitySketchRepository;
+    private final PurchaseRepository purchaseRepository;
+    /** Cached day sketches. */
+    private final Map<String, HyperLogLog> sketches = new ConcurrentHashMap<>();
+    /** Cached product sketches, in access order. */
+    private final Map<String, HyperLogLog> productSketches = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, HyperLogLog> eldest) {
+                    return size() > CACHED_PRODUCTS;
+                }
+            });
+    /** Keys of past days without a sketch. */
+    private final Set<String> absentDays = ConcurrentHashMap.newKeySet();
+
+    /** Day on which old day sketches were last dropped from the cache. */
+    private volatile LocalDate sweptDay;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param cardinalitySketchRepository The repository storing the sketch blobs.
+     * @param purchaseRepository          The repository the backfill reads purchases from.
+     */
+    public CustomerCardinalityService(CardinalitySketchRepository cardinalitySketchRepository,
+                                      PurchaseRepository purchaseRepository) {
+        this.cardinalitySketchRepository = cardinalitySketchRepository;
+        this.purchaseRepository = purchaseRepository;
+    }
+
+    /**
+     * Adds the buyer of a committed purchase to the day sketch and to each product's sketch.
+     * Runs in its own transaction because the checkout transaction has already committed.
+     *
+     * @param ev The event containing the new purchase.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void handlePurchaseCreated(PurchaseCreatedEvent ev) {
+        Purchase purchase = ev.getPurchase();
+        if (purchase.getAccount() == null || purchase.getAccount().getId() == null || purchase.getCreatedAt() == null) {
+            return;
+        }
+        long accountId = purchase.getAccount().getId();
+
+        // Sorted, so concurrent checkouts upsert shared rows in the same order and cannot deadlock
+        Set<String> keys = new TreeSet<>();
+        keys.add(dayKey(purchase.getCreatedAt().toLocalDate()));
+        for (LineItem item : purchase.getLineItems()) {
+            keys.add(productKey(item.getProduct().getId()));
+        }
+
+        Map<String, HyperLogLog> loaded = load(keys, true);
+        for (String key : keys) {
+            HyperLogLog sketch = loaded.get(key);
+            // Written under the sketch lock so a concurrent checkout can't store an older blob last.
+            // Only written when a register actually changed, so repeat buyers cost nothing.
+            synchronized (sketch) {
+                if (sketch.add(accountId)) {
+                    cardinalitySketchRepository.upsert(key, sketch.toBytes());
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds every existing purchase to the sketches, for the history from before they existed.
+     * Safe while checkouts continue: the result is merged into the stored sketches (a union),
+     * never written over them.
+     *
+     * @return the number of sketches written
+     */
+    @Transactional
+    public int backfill() {
+        long maxId = purchaseRepository.findMaxId();
+        Map<String, HyperLogLog> built = new TreeMap<>();
+        for (long afterId = 0; afterId < maxId; afterId += BACKFILL_BATCH) {
+            for (Object[] row : purchaseRepository.findBuyersBetween(afterId, afterId + BACKFILL_BATCH)) {
+                long accountId = ((Number) row[1]).longValue();
+                LocalDate day = ((LocalDateTime) row[2]).toLocalDate();
+                built.computeIfAbsent(dayKey(day), k -> new HyperLogLog()).add(accountId);
+                if (row[3] != null) {
+                    built.computeIfAbsent(productKey(((Number) row[3]).longValue()), k -> new HyperLogLog()).add(accountId);
+                }
+            }
+        }
+
+        Map<String, HyperLogLog> loaded = load(built.keySet(), true);
+        for (Map.Entry<String, HyperLogLog> entry : built.entrySet()) {
+            HyperLogLog sketch = loaded.get(entry.getKey());
+            synchronized (sketch) {
+                sketch.merge(entry.getValue());
+                cardinalitySketchRepository.upsert(entry.getKey(), sketch.toBytes());
+            }
+        }
+        evictOldDays(LocalDate.now());
+        return built.size();
+    }
+
+    /**
+     * @return true if no sketch has been stored yet
+     */
+    public boolean isEmpty() {
+        return cardinalitySketchRepository.count() == 0;
+    }
+
+    /**
+     * Estimates the number of distinct customers who ordered between two days (inclusive).
+     */
+    public long uniqueCustomers(LocalDate fromDay, LocalDate toDay) {
+        List<String> keys = new ArrayList<>();
+        for (LocalDate day = fromDay; !day.isAfter(toDay); day = day.plusDays(1)) {
+            keys.add(dayKey(day));
+        }
+
+        HyperLogLog union = new HyperLogLog();
+        for (HyperLogLog sketch : load(keys, false).values()) {
+            synchronized (sketch) {
+                union.merge(sketch);
+            }
+        }
+        return union.estimate();
+    }
+
+    /**
+     * Estimates the number of distinct buyers of each product.
+     *
+     * @param productIds The products to look up.
+     * @return Estimated distinct buyers per product ID (0 for products never bought).
+     */
+    public Map<Long, Long> uniqueBuyers(Collection<Long> productIds) {
+        List<String> keys = productIds.stream().map(CustomerCardinalityService::productKey).toList();
+        Map<String, HyperLogLog> loaded = load(keys, false);
+
+        Map<Long, Long> result = new HashMap<>();
+        for (Long productId : productIds) {
+            HyperLogLog sketch = loaded.get(productKey(productId));
+            long estimate = 0L;
+            if (sketch != null) {
+                synchronized (sketch) {
+                    estimate = sketch.estimate();
+                }
+            }
+            result.put(productId, estimate);
+        }
+        return result;
+    }
+
+    /**
+     * Drops the buyer sketch of a deleted product.
+     */
+    @Transactional
+    public void removeProduct(Long productId) {
+        String key = productKey(productId);
+        productSketches.remove(key);
+        cardinalitySketchRepository.deleteBySketchKey(key);
+    }
+
+    /**
+     * Returns the sketches for the given keys, reading any not yet cached from the database
+     * in a single query.
+     *
+     * @param create whether to create empty sketches for keys that do not exist yet
+     */
+    private Map<String, HyperLogLog> load(Collection<String> keys, boolean create) {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(sweptDay)) {
+            sweptDay = today;
+            evictOldDays(today);
+        }
+
+        List<String> missing = keys.stream()
+                .filter(k -> cache(k).get(k) == null && (create || !absentDays.contains(k)))
+                .toList();
+        if (!missing.isEmpty()) {
+            Set<String> found = new HashSet<>();
+            for (CardinalitySketch stored : cardinalitySketchRepository.findBySketchKeyIn(missing)) {
+                found.add(stored.getSketchKey());
+                cacheIfAbsent(stored.getSketchKey(), HyperLogLog.fromBytes(stored.getRegisters()));
+            }
+            // Only checkouts of today create day sketches, so a past day without one stays without
+            String todayKey = dayKey(today);
+            for (String key : missing) {
+                if (!found.contains(key) && key.startsWith(DAY_PREFIX) && key.compareTo(todayKey) < 0) {
+                    absentDays.add(key);
+                }
+            }
+        }
+
+        Map<String, HyperLogLog> result = new HashMap<>();
+        for (String key : keys) {
+            HyperLogLog sketch = cache(key).get(key);
+            if (sketch == null && create) {
+                absentDays.remove(key);
+                sketch = cacheIfAbsent(key, new HyperLogLog());
+            }
+            if (sketch != null) {
+                result.put(key, sketch);
+            }
+        }
+        return result;
+    }
+
+    private Map<String, HyperLogLog> cache(String key) {
+        return key.startsWith(PRODUCT_PREFIX) ? productSketches : sketches;
+    }
+
+    /**
+     * Caches a sketch unless one is cached already.
+     *
+     * @return the cached sketch
+     */
+    private HyperLogLog cacheIfAbsent(String key, HyperLogLog sketch) {
+        HyperLogLog existing = cache(key).putIfAbsent(key, sketch);
+        return existing != null ? existing : sketch;
+    }
+
+    /**
+     * Drops day sketches and absent days older than {@value #CACHED_DAYS} days from the cache.
+     * Checkouts only write today's sketch, so no sketch being written is dropped.
+     */
+    private void evictOldDays(LocalDate today) {
+        String oldest = dayKey(today.minusDays(CACHED_DAYS));
+        sketches.keySet().removeIf(key -> key.compareTo(oldest) < 0);
+        absentDays.removeIf(key -> key.compareTo(oldest) < 0);
+    }
+
+    private static String dayKey(LocalDate day) {
+        return DAY_PREFIX + day;
+    }
+
+    private static String productKey(Long productId) {
+        return PRODUCT_PREFIX + productId;
+    }
+}
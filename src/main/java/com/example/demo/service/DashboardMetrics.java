@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.Stats;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory registry of the live counters shown on the admin dashboard.
+ * <p>
+ * Counters are updated by entity lifecycle callbacks (see
+ * {@link com.example.demo.events.DashboardMetricsListener}), so rendering the
+ * dashboard costs no queries. {@link DashboardMetricsReconciler} periodically
+ * re-counts the tables and corrects any drift (e.g. from rolled-back transactions).
+ * <p>
+ * This class deliberately has no repository dependencies, so Hibernate can inject it
+ * into entity listeners while the EntityManagerFactory is still being built.
+ */
+@Service
+public class DashboardMetrics {
+
+    private final LongAdder products = new LongAdder();
+    private final LongAdder users = new LongAdder();
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder openConversations = new LongAdder();
+    private final LongAdder revenueTodayCents = new LongAdder();
+
+    /** The day {@link #revenueTodayCents} refers to; the counter restarts when the day changes. */
+    private volatile LocalDate revenueDay = LocalDate.now();
+
+    // ---------- Updates (called from entity lifecycle callbacks) ----------
+
+    public void productAdded(int delta) { products.add(delta); }
+
+    public void userAdded(int delta) { users.add(delta); }
+
+    public void conversationAdded(int delta) { openConversations.add(delta); }
+
+    /**
+     * Counts a purchase and, if it was placed today, adds its total to today's revenue.
+     *
+     * @param delta +1 for a new purchase, -1 for a removed one
+     * @param day   the day the purchase was created
+     * @param total the purchase total
+     */
+    public void orderAdded(int delta, LocalDate day, BigDecimal total) {
+        orders.add(delta);
+        if (day != null && total != null && day.equals(currentRevenueDay())) {
+            revenueTodayCents.add(delta * toCents(total));
+        }
+    }
+
+    // ---------- Reads ----------
+
+    /**
+     * Returns a snapshot of all dashboard KPIs. Costs no database queries.
+     */
+    public Stats snapshot() {
+        currentRevenueDay();
+        return new Stats(products.sum(), orders.sum(), users.sum(),
+                BigDecimal.valueOf(revenueTodayCents.sum(), 2), openConversations.sum());
+    }
+
+    // ---------- Reconciliation ----------
+
+    /**
+     * Replaces the counters with freshly counted values.
+     * Called by {@link DashboardMetricsReconciler}; concurrent updates that land
+     * between the count and the correction are picked up by the next run.
+     */
+    public void reconcile(long productCount, long userCount, long orderCount,
+                          long conversationCount, BigDecimal revenueToday) {
+        correct(products, productCount);
+        correct(users, userCount);
+        correct(orders, orderCount);
+        correct(openConversations, conversationCount);
+        correct(revenueTodayCents, toCents(revenueToday));
+    }
+
+    private static void correct(LongAdder counter, long actual) {
+        counter.add(actual - counter.sum());
+    }
+
+    /**
+     * Returns today's date, restarting the revenue counter first if midnight has passed.
+     */
+    public LocalDate currentRevenueDay() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(revenueDay)) {
+            synchronized (this) {
+                if (!today.equals(revenueDay)) {
+                    revenueTodayCents.reset();
+                    revenueDay = today;
+                }
+            }
+        }
+        return today;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0L : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+}
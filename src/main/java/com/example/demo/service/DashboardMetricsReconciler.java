@@ -0,0 +1,54 @@
+package com.example.demo.service;
+
+import com.example.demo.config.WorkloadContext;
+import com.example.demo.config.WorkloadType;
+import com.example.demo.repository.AccountRepository;
+import com.example.demo.repository.ConversationRepository;
+import com.example.demo.repository.ProductRepository;
+import com.example.demo.repository.PurchaseRepository;
+import com.example.demo.repository.RevenueDailyRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Periodically re-counts the dashboard KPIs from the database and corrects
+ * the live counters in {@link DashboardMetrics}.
+ */
+@Service
+public class DashboardMetricsReconciler {
+
+    private final DashboardMetrics metrics;
+    private final ProductRepository productRepository;
+    private final AccountRepository accountRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final ConversationRepository conversationRepository;
+    private final RevenueDailyRepository revenueDailyRepository;
+
+    // Constructor injection of the registry and the repositories used for counting
+    public DashboardMetricsReconciler(DashboardMetrics metrics,
+                                      ProductRepository productRepository,
+                                      AccountRepository accountRepository,
+                                      PurchaseRepository purchaseRepository,
+                                      ConversationRepository conversationRepository,
+                                      RevenueDailyRepository revenueDailyRepository) {
+        this.metrics = metrics;
+        this.productRepository = productRepository;
+        this.accountRepository = accountRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.conversationRepository = conversationRepository;
+        this.revenueDailyRepository = revenueDailyRepository;
+    }
+
+    /**
+     * Runs once at startup and then every {@code app.metrics.reconcile-interval-ms} (default 5 minutes).
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.metrics.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        WorkloadContext.runAs(WorkloadType.REPORTING, () -> metrics.reconcile(
+                productRepository.count(),
+                accountRepository.count(),
+                purchaseRepository.count(),
+                conversationRepository.count(),
+                revenueDailyRepository.sumRevenueForDay(metrics.currentRevenueDay())));
+    }
+}
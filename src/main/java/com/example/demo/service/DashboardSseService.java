@@ -0,0 +1,82 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DashboardUpdateDTO;
+import com.example.demo.dto.Stats;
+import com.example.demo.events.PurchaseCreatedEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SSE hub that streams live order and revenue updates to open admin dashboards.
+ * Purchases are accumulated as they commit and flushed as a single event at most
+ * once per second, so a burst of checkouts costs each client one message.
+ */
+@Service
+public class DashboardSseService {
+
+    /** Dispatcher channel of the admin dashboards. */
+    public static final String CHANNEL = "dashboard";
+
+    /** Orders committed since the last flush. */
+    private final AtomicLong pendingOrders = new AtomicLong();
+
+    /** Revenue (in cents) committed since the last flush. */
+    private final AtomicLong pendingRevenueCents = new AtomicLong();
+
+    private final DashboardMetrics dashboardMetrics;
+    private final SseDispatcher dispatcher;
+
+    // Constructor injection of the metrics registry used for current totals and the emitter dispatcher
+    public DashboardSseService(DashboardMetrics dashboardMetrics, SseDispatcher dispatcher) {
+        this.dashboardMetrics = dashboardMetrics;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Registers a new SseEmitter for an admin dashboard.
+     * The dispatcher cleans up emitters when clients disconnect, time out or fall behind.
+     *
+     * @return A new SseEmitter instance.
+     */
+    public SseEmitter addEmitter() {
+        return dispatcher.subscribe(CHANNEL);
+    }
+
+    /**
+     * Accumulates a purchase once the checkout transaction has committed.
+     *
+     * @param ev The event containing the new purchase.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handlePurchaseCreated(PurchaseCreatedEvent ev) {
+        BigDecimal total = ev.getPurchase().getTotal();
+        pendingOrders.incrementAndGet();
+        if (total != null) {
+            pendingRevenueCents.addAndGet(total.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue());
+        }
+    }
+
+    /**
+     * Sends the accumulated deltas (if any) to all dashboards, at most once per second.
+     */
+    @Scheduled(fixedRate = 1000)
+    public void flush() {
+        long orders = pendingOrders.getAndSet(0);
+        long cents = pendingRevenueCents.getAndSet(0);
+        if ((orders == 0 && cents == 0) || !dispatcher.hasSubscribers(CHANNEL)) {
+            return;
+        }
+
+        Stats stats = dashboardMetrics.snapshot();
+        DashboardUpdateDTO update = new DashboardUpdateDTO(orders, BigDecimal.valueOf(cents, 2),
+                stats.getOrderCount(), stats.getRevenueToday());
+        dispatcher.publish(CHANNEL, "dashboard", update);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.demo.service;
+
+import com.example.demo.config.WorkloadContext;
+import com.example.demo.config.WorkloadType;
+import com.example.demo.repository.MessageEntryRepository;
+import com.example.demo.util.InvertedIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keyword search over chat messages, returning matching conversation IDs with a snippet,
+ * backed by an in-memory {@link InvertedIndex} (message ID -> conversation ID).
+ * The index holds no message text: the texts of at most {@value #MAX_CANDIDATES} candidate
+ * messages, and {@value #CANDIDATES_PER_CONVERSATION} per conversation, are loaded per search
+ * to confirm the phrase and build the snippets. A search that hits either bound says so.
+ * <p>
+ * The index is built in the background at startup and kept current by
+ * {@link com.example.demo.events.MessageSearchListener} as messages are saved and deleted.
+ * Until it is built, callers should fall back to scanning the messages.
+ */
+@Service
+public class MessageSearchIndex {
+
+    /** Number of messages read per batch while building. */
+    private static final int LOAD_BATCH = 10_000;
+
+    /** Most candidate messages whose text is loaded per search. */
+    private static final int MAX_CANDIDATES = 1000;
+
+    /** Most candidate messages per conversation (the newest ones). */
+    private static final int CANDIDATES_PER_CONVERSATION = 20;
+
+    /**
+     * Search result: matching conversation IDs with snippets, most recent match first.
+     *
+     * @param truncated true if the bounds on candidates were reached, so matches may be missing
+     */
+    public record Result(Map<Long, InvertedIndex.Snippet> matches, boolean truncated) {
+    }
+
+    private final MessageEntryRepository messageEntryRepository;
+    private final InvertedIndex index = new InvertedIndex();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    /** Messages and conversations removed while the build runs (null otherwise); guarded by the lock. */
+    private Set<Long> removedDuringBuild;
+    private Set<Long> removedGroupsDuringBuild;
+
+    /**
+     * Constructor-based dependency injection for MessageEntryRepository.
+     *
+     * @param messageEntryRepository The repository used to build the index.
+     */
+    public MessageSearchIndex(MessageEntryRepository messageEntryRepository) {
+        this.messageEntryRepository = messageEntryRepository;
+    }
+
+    /**
+     * Starts building the index in the background once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(() -> WorkloadContext.runAs(WorkloadType.REPORTING, this::build),
+                "message-search-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Reads all messages in ID order, batch by batch. Messages saved while building are
+     * indexed by the listener as well; {@link #put} simply replaces the entry. A batch is read
+     * before taking the lock, so messages and conversations removed since the build started are
+     * skipped rather than indexed again from a stale batch.
+     */
+    void build() {
+        lock.writeLock().lock();
+        try {
+            removedDuringBuild = new HashSet<>();
+            removedGroupsDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long afterId = 0L;
+        List<Object[]> batch;
+        do {
+            batch = messageEntryRepository.findSearchFieldsAfter(afterId, PageRequest.of(0, LOAD_BATCH));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : batch) {
+                    afterId = (Long) row[0];
+                    Long conversationId = (Long) row[1];
+                    if (conversationId != null && !removedDuringBuild.contains(afterId)
+                            && !removedGroupsDuringBuild.contains(conversationId)) {
+                        index.put(afterId, conversationId, (String) row[2]);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (batch.size() == LOAD_BATCH);
+
+        lock.writeLock().lock();
+        try {
+            removedDuringBuild = null;
+            removedGroupsDuringBuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        System.out.println("✅ Message search index built (" + index.size() + " messages).");
+    }
+
+    /**
+     * Checks whether the initial build has completed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds or re-indexes a message.
+     */
+    public void put(Long messageId, Long conversationId, String content) {
+        lock.writeLock().lock();
+        try {
+            index.put(messageId, conversationId, content);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted message.
+     */
+    public void remove(Long messageId) {
+        lock.writeLock().lock();
+        try {
+            index.remove(messageId);
+            if (removedDuringBuild != null) {
+                removedDuringBuild.add(messageId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every message of a deleted conversation.
+     */
+    public void removeConversation(Long conversationId) {
+        lock.writeLock().lock();
+        try {
+            index.removeGroup(conversationId);
+            if (removedGroupsDuringBuild != null) {
+                removedGroupsDuringBuild.add(conversationId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds conversations with a message containing the keyword (case-insensitive,
+     * each keyword word matching the start of a word).
+     *
+     * @param keyword         the search keyword or phrase
+     * @param conversationIds conversations to search (e.g. the user's own), or null for all
+     * @return matching conversation IDs, most recent match first, each with a snippet of its latest match
+     */
+    public Result search(String keyword, Set<Long> conversationIds) {
+        Map<Long, Long> candidates;
+        lock.readLock().lock();
+        try {
+            candidates = index.search(keyword, MAX_CANDIDATES + 1, CANDIDATES_PER_CONVERSATION, conversationIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (candidates.isEmpty()) {
+            return new Result(Map.of(), false);
+        }
+        // One candidate more than the bound tells whether the bound was reached
+        List<Map.Entry<Long, Long>> ordered = new ArrayList<>(candidates.entrySet());
+        boolean truncated = ordered.size() > MAX_CANDIDATES;
+        if (truncated) {
+            ordered = ordered.subList(0, MAX_CANDIDATES);
+        }
+        Map<Long, Integer> perConversation = new HashMap<>();
+        List<Long> messageIds = new ArrayList<>(ordered.size());
+        for (Map.Entry<Long, Long> candidate : ordered) {
+            messageIds.add(candidate.getKey());
+            perConversation.merge(candidate.getValue(), 1, Integer::sum);
+        }
+
+        Map<Long, String> texts = new HashMap<>();
+        for (Object[] row : messageEntryRepository.findContentsByIdIn(messageIds)) {
+            texts.put((Long) row[0], (String) row[1]);
+        }
+        Map<Long, InvertedIndex.Snippet> result = new LinkedHashMap<>();
+        for (Map.Entry<Long, Long> candidate : ordered) {
+            Long conversationId = candidate.getValue();
+            if (!result.containsKey(conversationId)) {
+                InvertedIndex.Snippet snippet = InvertedIndex.match(texts.get(candidate.getKey()), keyword);
+                if (snippet != null) {
+                    result.put(conversationId, snippet);
+                }
+            }
+        }
+        // Not confirmed by its newest candidates: older messages of that conversation were not checked
+        for (Map.Entry<Long, Integer> entry : perConversation.entrySet()) {
+            if (entry.getValue() == CANDIDATES_PER_CONVERSATION && !result.containsKey(entry.getKey())) {
+                truncated = true;
+            }
+        }
+        return new Result(result, truncated);
+    }
+}
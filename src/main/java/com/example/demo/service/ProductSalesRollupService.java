@@ -0,0 +1,68 @@
+package com.example.demo.service;
+
+import com.example.demo.model.LineItem;
+import com.example.demo.model.Purchase;
+import com.example.demo.repository.ProductSalesDailyRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Maintains the {@code product_sales_daily} rollup table.
+ * Revenue is always taken from {@link LineItem#getUnitPrice()}, i.e. the price
+ * the customer actually paid, not the product's current price.
+ */
+@Service
+public class ProductSalesRollupService {
+
+    private final ProductSalesDailyRepository productSalesDailyRepository;
+
+    /**
+     * Constructor-based dependency injection for ProductSalesDailyRepository.
+     *
+     * @param productSalesDailyRepository The repository handling the rollup rows.
+     */
+    public ProductSalesRollupService(ProductSalesDailyRepository productSalesDailyRepository) {
+        this.productSalesDailyRepository = productSalesDailyRepository;
+    }
+
+    /**
+     * Adds every line item of a newly placed purchase to its (product, day) bucket.
+     * Joins the checkout transaction.
+     *
+     * @param purchase The purchase that was just saved.
+     */
+    @Transactional
+    public void recordPurchase(Purchase purchase) {
+        if (purchase.getCreatedAt() == null) {
+            return;
+        }
+        LocalDate day = purchase.getCreatedAt().toLocalDate();
+        for (LineItem item : purchase.getLineItems()) {
+            BigDecimal unitPrice = item.getUnitPrice() != null ? item.getUnitPrice() : BigDecimal.ZERO;
+            productSalesDailyRepository.addToDay(item.getProduct().getId(), day, item.getQuantity(),
+                    unitPrice.multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+    }
+
+    /**
+     * Recomputes the whole rollup from the line_item table.
+     *
+     * @return The number of rollup rows written.
+     */
+    @Transactional
+    public int rebuild() {
+        productSalesDailyRepository.deleteAllRows();
+        return productSalesDailyRepository.rebuildFromLineItems();
+    }
+
+    /**
+     * Checks whether the rollup table holds any rows yet.
+     */
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return productSalesDailyRepository.count() == 0;
+    }
+}
@@ -1,12 +1,14 @@
 package com.example.demo.service;
 
+import com.example.demo.events.ProductDeletedEvent;
 import com.example.demo.model.Product;
 import com.example.demo.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,7 +22,11 @@ public class ProductService {
     private final FavoriteRepository favoriteRepository;
     private final LineItemRepository lineItemRepository;
     private final ReviewRepository reviewRepository;
-    private final PurchaseRepository purchaseRepository;
+    private final ProductSalesDailyRepository productSalesDailyRepository;
+    private final AnalyticsQueryCache analyticsQueryCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TopProductsSketch topProductsSketch;
+    private final CustomerCardinalityService customerCardinalityService;
 
     /**
      * Deletes a product and its dependent rows (cart items, favorites, line items)
@@ -31,24 +37,39 @@ public class ProductService {
         cartItemRepository.deleteByProduct_Id(productId);
         favoriteRepository.deleteByProduct_Id(productId);
         lineItemRepository.deleteByProduct_Id(productId);
+        productSalesDailyRepository.deleteByProductId(productId);
         productRepository.deleteById(productId);
+        eventPublisher.publishEvent(new ProductDeletedEvent(productId)); // handled after commit
+        topProductsSketch.removeProduct(productId);
+        customerCardinalityService.removeProduct(productId);
     }
 
     /**
      * Returns top-selling products with optional search & sort filters
-     * limited to orders made since {@code startDate}.
+     * limited to orders made on or after {@code startDay}.
      * <p>
-     * The repository query joins LineItem → Product so the Object[]
-     * comes back as { productName, metric } (quantity or revenue).
+     * Served by range-summing the product_sales_daily rollup, so each
+     * Object[] comes back as { productName, quantity, revenue, productId }
+     * with revenue based on the unit price paid at checkout.
+     * Results are cached in {@link AnalyticsQueryCache}.
      */
-    @Transactional(readOnly = true)
     public List<Object[]> findTopSellingFilteredSortedAndTimed(String search,
                                                                String sortBy,
-                                                               LocalDateTime startDate) {
-        // Ensure non‑null parameters for JPQL LIKE / CASE usage
-        if (search == null) search = "";
-        if (sortBy == null || sortBy.isBlank()) sortBy = "quantity";
-        return purchaseRepository.findTopSellingByFilter(startDate, search.toLowerCase(), sortBy);
+                                                               LocalDate startDay) {
+        // Ensure non‑null parameters for JPQL LIKE usage
+        String term = search == null ? "" : search.toLowerCase();
+
+        return analyticsQueryCache.get(
+                new AnalyticsQueryCache.Key("top-products", startDay, null, term, sortBy),
+                () -> {
+                    // One query per sort order keeps each ORDER BY a plain expression
+                    if ("name".equals(sortBy)) {
+                        return productSalesDailyRepository.findTopSellingSortedByName(startDay, term);
+                    } else if ("revenue".equals(sortBy)) {
+                        return productSalesDailyRepository.findTopSellingSortedByRevenue(startDay, term);
+                    }
+                    return productSalesDailyRepository.findTopSellingSortedByQuantity(startDay, term);
+                });
     }
 
     /**
@@ -0,0 +1,397 @@
+package com.example.demo.service;
+
+import com.example.demo.config.WorkloadContext;
+import com.example.demo.config.WorkloadType;
+import com.example.demo.events.PurchaseCreatedEvent;
+import com.example.demo.events.PurchaseStatusChangedEvent;
+import com.example.demo.model.Purchase;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.PurchaseRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process, column-oriented copy of the purchase table used by the admin revenue charts.
+ * <p>
+ * Each purchase is stored as one slot in parallel primitive arrays
+ * (id, epoch day, total in cents, status code), kept ordered by purchase ID.
+ * Time-range / status aggregations are plain loops over those arrays; large scans
+ * are split across the common fork-join pool.
+ * <p>
+ * The store is loaded once at startup and appended to after each checkout commits.
+ * Until loading has finished, callers should fall back to the revenue_daily rollup.
+ */
+@Service
+public class PurchaseColumnStore {
+
+    /** Status code used for purchases without a (known) status. */
+    public static final int NO_STATUS = 0;
+
+    /** Status filter value meaning "all statuses". */
+    public static final int ANY_STATUS = -1;
+
+    /** Number of purchases read per batch while loading. */
+    private static final int LOAD_BATCH = 10_000;
+
+    /** Scans above this many rows are split across the fork-join pool. */
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    /** Size of the slice each fork-join leaf aggregates sequentially. */
+    private static final int LEAF_SIZE = 1 << 18;
+
+    private final PurchaseRepository purchaseRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[1024];
+    private int[] days = new int[1024];
+    private long[] cents = new long[1024];
+    private int[] statuses = new int[1024];
+    private int size;
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+    private volatile boolean loaded;
+
+    /** Purchases created or changed while loading, replayed once the load completes (guarded by the write lock). */
+    private final List<Purchase> changedDuringLoad = new ArrayList<>();
+
+    /**
+     * Constructor-based dependency injection for PurchaseRepository.
+     *
+     * @param purchaseRepository The repository used for the initial load.
+     */
+    public PurchaseColumnStore(PurchaseRepository purchaseRepository) {
+        this.purchaseRepository = purchaseRepository;
+    }
+
+    // ---------- Loading & maintenance ----------
+
+    /**
+     * Starts loading the store in the background once the application is ready,
+     * so a large purchase table does not delay startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread loader = new Thread(() -> WorkloadContext.runAs(WorkloadType.REPORTING, this::load),
+                "purchase-column-store-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Reads all purchases in ID order, batch by batch.
+     * The last batch is read while holding the write lock. Purchases committed earlier during
+     * loading may fall into a range that was already read, so they are buffered by the event
+     * handlers and replayed here under the same lock.
+     */
+    void load() {
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> batch = purchaseRepository.findColumnsAfter(afterId, PageRequest.of(0, LOAD_BATCH));
+            if (batch.size() < LOAD_BATCH) {
+                break;
+            }
+            afterId = appendRows(batch);
+        }
+
+        lock.writeLock().lock();
+        try {
+            List<Object[]> batch;
+            do {
+                batch = purchaseRepository.findColumnsAfter(afterId, PageRequest.of(0, LOAD_BATCH));
+                afterId = appendRows(batch);
+            } while (batch.size() == LOAD_BATCH);
+            for (Purchase p : changedDuringLoad) {
+                apply(p);
+            }
+            changedDuringLoad.clear();
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("✅ Purchase column store loaded (" + size + " purchases).");
+    }
+
+    /**
+     * Appends a newly placed purchase once the checkout transaction has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handlePurchaseCreated(PurchaseCreatedEvent ev) {
+        Purchase p = ev.getPurchase();
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                changedDuringLoad.add(p);
+            } else if (p.getCreatedAt() != null) {
+                insert(p.getId(), p.getCreatedAt(), p.getTotal(), statusCode(p.getStatus()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Updates the status column of a purchase once the status change has committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleStatusChanged(PurchaseStatusChangedEvent ev) {
+        Purchase p = ev.getPurchase();
+        lock.writeLock().lock();
+        try {
+            // The loader may have read the row before this change committed
+            if (!loaded) {
+                changedDuringLoad.add(p);
+                return;
+            }
+            int slot = Arrays.binarySearch(ids, 0, size, p.getId());
+            if (slot >= 0) {
+                statuses[slot] = statusCode(p.getStatus());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the initial load has completed.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Returns the number of purchases currently held.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- Queries ----------
+
+    /**
+     * Daily revenue between two days (inclusive), as { LocalDate, BigDecimal } rows
+     * for every day that has at least one matching purchase.
+     *
+     * @param fromDay    First day to include, or null for the earliest purchase.
+     * @param toDay      Last day to include, or null for the latest purchase.
+     * @param statusCode Status code to match, or {@link #ANY_STATUS}.
+     */
+    public List<Object[]> dailyRevenue(LocalDate fromDay, LocalDate toDay, int statusCode) {
+        List<Object[]> rows = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (size == 0) {
+                return rows;
+            }
+            int from = fromDay != null ? (int) fromDay.toEpochDay() : minDay;
+            int to = toDay != null ? (int) toDay.toEpochDay() : maxDay;
+            if (from > to) {
+                return rows;
+            }
+            long[][] buckets = aggregate(from, to - from + 1, statusCode);
+            for (int d = 0; d < buckets[0].length; d++) {
+                if (buckets[1][d] > 0) {
+                    rows.add(new Object[]{LocalDate.ofEpochDay(from + d), BigDecimal.valueOf(buckets[0][d], 2)});
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return rows;
+    }
+
+    /**
+     * Monthly revenue over all purchases, as { "yyyy-MM", BigDecimal } rows.
+     *
+     * @param statusCode Status code to match, or {@link #ANY_STATUS}.
+     */
+    public List<Object[]> monthlyRevenue(int statusCode) {
+        Map<YearMonth, BigDecimal> months = new TreeMap<>();
+        for (Object[] row : dailyRevenue(null, null, statusCode)) {
+            months.merge(YearMonth.from((LocalDate) row[0]), (BigDecimal) row[1], BigDecimal::add);
+        }
+        List<Object[]> rows = new ArrayList<>(months.size());
+        months.forEach((month, revenue) -> rows.add(new Object[]{month.toString(), revenue}));
+        return rows;
+    }
+
+    /**
+     * Maps a status entity to the code stored in the status column (its ID).
+     */
+    public static int statusCode(StatusType status) {
+        return status != null ? statusCode(status.getId()) : NO_STATUS;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the ID cannot be stored without colliding with another code
+     */
+    private static int statusCode(Long statusId) {
+        if (statusId == null) {
+            return NO_STATUS;
+        }
+        if (statusId <= 0 || statusId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Status ID out of range for the column store: " + statusId);
+        }
+        return statusId.intValue();
+    }
+
+    // ---------- Internals (callers hold the appropriate lock) ----------
+
+    /**
+     * Sums cents and order counts per day over [from, from + span).
+     *
+     * @return { cents per day, orders per day }
+     */
+    private long[][] aggregate(int from, int span, int statusCode) {
+        if (size < PARALLEL_THRESHOLD) {
+            return scan(0, size, from, span, statusCode);
+        }
+        return ForkJoinPool.commonPool().invoke(new ScanTask(0, size, from, span, statusCode));
+    }
+
+    /**
+     * Sequential kernel: one pass over a slice of the columns.
+     * Non-short-circuit operators keep the loop body free of extra branches.
+     */
+    private long[][] scan(int start, int end, int from, int span, int statusCode) {
+        long[] sums = new long[span];
+        long[] counts = new long[span];
+        final int[] dayCol = days;
+        final long[] centCol = cents;
+        final int[] statusCol = statuses;
+        final boolean anyStatus = statusCode == ANY_STATUS;
+
+        for (int i = start; i < end; i++) {
+            int d = dayCol[i] - from;
+            if ((d >= 0) & (d < span) & (anyStatus | statusCol[i] == statusCode)) {
+                sums[d] += centCol[i];
+                counts[d]++;
+            }
+        }
+        return new long[][]{sums, counts};
+    }
+
+    /**
+     * Fork-join task that splits the row range until slices fit {@link #LEAF_SIZE}
+     * and merges the per-day buckets on the way back up.
+     */
+    private final class ScanTask extends RecursiveTask<long[][]> {
+        private final int start, end, from, span, statusCode;
+
+        ScanTask(int start, int end, int from, int span, int statusCode) {
+            this.start = start;
+            this.end = end;
+            this.from = from;
+            this.span = span;
+            this.statusCode = statusCode;
+        }
+
+        @Override
+        protected long[][] compute() {
+            if (end - start <= LEAF_SIZE) {
+                return scan(start, end, from, span, statusCode);
+            }
+            int mid = (start + end) >>> 1;
+            ScanTask left = new ScanTask(start, mid, from, span, statusCode);
+            left.fork();
+            long[][] right = new ScanTask(mid, end, from, span, statusCode).compute();
+            long[][] merged = left.join();
+            for (int d = 0; d < span; d++) {
+                merged[0][d] += right[0][d];
+                merged[1][d] += right[1][d];
+            }
+            return merged;
+        }
+    }
+
+    /**
+     * Appends loader rows { id, createdAt, total, statusId } and returns the last ID seen.
+     */
+    private long appendRows(List<Object[]> batch) {
+        long lastId = 0L;
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : batch) {
+                lastId = (Long) row[0];
+                if (row[1] != null) {
+                    insert(lastId, (LocalDateTime) row[1], (BigDecimal) row[2], statusCode((Long) row[3]));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return lastId;
+    }
+
+    /**
+     * Replays a purchase buffered during loading: updates its status if the loader already read it,
+     * otherwise inserts it. Caller must hold the write lock.
+     */
+    private void apply(Purchase p) {
+        int slot = Arrays.binarySearch(ids, 0, size, p.getId());
+        if (slot >= 0) {
+            statuses[slot] = statusCode(p.getStatus());
+        } else if (p.getCreatedAt() != null) {
+            insert(p.getId(), p.getCreatedAt(), p.getTotal(), statusCode(p.getStatus()));
+        }
+    }
+
+    /**
+     * Inserts one purchase keeping the columns ordered by ID.
+     * IDs almost always arrive in ascending order; out-of-order commits are shifted in from the tail.
+     */
+    private void insert(long id, LocalDateTime createdAt, BigDecimal total, int status) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            days = Arrays.copyOf(days, capacity);
+            cents = Arrays.copyOf(cents, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+
+        int slot = size;
+        while (slot > 0 && ids[slot - 1] > id) {
+            slot--;
+        }
+        if (slot > 0 && ids[slot - 1] == id) {
+            return; // already present
+        }
+        if (slot < size) {
+            System.arraycopy(ids, slot, ids, slot + 1, size - slot);
+            System.arraycopy(days, slot, days, slot + 1, size - slot);
+            System.arraycopy(cents, slot, cents, slot + 1, size - slot);
+            System.arraycopy(statuses, slot, statuses, slot + 1, size - slot);
+        }
+
+        int day = (int) createdAt.toLocalDate().toEpochDay();
+        ids[slot] = id;
+        days[slot] = day;
+        cents[slot] = total != null ? total.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue() : 0L;
+        statuses[slot] = status;
+        size++;
+        minDay = Math.min(minDay, day);
+        maxDay = Math.max(maxDay, day);
+    }
+}
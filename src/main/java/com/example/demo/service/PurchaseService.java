@@ -1,12 +1,20 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.DailyRevenueDTO;
+import com.example.demo.events.PurchaseStatusChangedEvent;
+import com.example.demo.model.Purchase;
+import com.example.demo.model.StatusType;
 import com.example.demo.repository.PurchaseRepository;
+import com.example.demo.repository.RevenueDailyRepository;
+import com.example.demo.repository.StatusTypeRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -17,28 +25,128 @@ import java.util.stream.Collectors;
 public class PurchaseService {
 
     private final PurchaseRepository purchaseRepository;
+    private final RevenueDailyRepository revenueDailyRepository;
+    private final StatusTypeRepository statusTypeRepository;
+    private final RevenueRollupService revenueRollupService;
+    private final PurchaseColumnStore purchaseColumnStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AnalyticsQueryCache analyticsQueryCache;
 
     /**
-     * Constructor-based dependency injection for PurchaseRepository.
+     * Constructor-based dependency injection.
      *
-     * @param purchaseRepository The repository handling purchase data access.
+     * @param purchaseRepository     The repository handling purchase data access.
+     * @param revenueDailyRepository The repository reading the daily revenue rollup.
+     * @param statusTypeRepository   The repository handling order status types.
+     * @param revenueRollupService   The service keeping the rollup in sync with purchases.
+     * @param purchaseColumnStore    The in-memory columnar copy of the purchase table.
+     * @param eventPublisher         Publisher for purchase status change events.
+     * @param analyticsQueryCache    Result cache in front of the revenue queries.
      */
-    public PurchaseService(PurchaseRepository purchaseRepository) {
+    public PurchaseService(PurchaseRepository purchaseRepository,
+                           RevenueDailyRepository revenueDailyRepository,
+                           StatusTypeRepository statusTypeRepository,
+                           RevenueRollupService revenueRollupService,
+                           PurchaseColumnStore purchaseColumnStore,
+                           ApplicationEventPublisher eventPublisher,
+                           AnalyticsQueryCache analyticsQueryCache) {
         this.purchaseRepository = purchaseRepository;
+        this.revenueDailyRepository = revenueDailyRepository;
+        this.statusTypeRepository = statusTypeRepository;
+        this.revenueRollupService = revenueRollupService;
+        this.purchaseColumnStore = purchaseColumnStore;
+        this.eventPublisher = eventPublisher;
+        this.analyticsQueryCache = analyticsQueryCache;
     }
 
     /**
      * Retrieves a list of daily revenue figures.
-     * Converts raw query results from PurchaseRepository into a list of DTOs.
+     * Served from the in-memory column store once it is loaded, otherwise from
+     * the revenue_daily rollup, and converted into a list of DTOs.
+     *
+     * Results are cached in {@link AnalyticsQueryCache}.
      *
      * @return A list of DailyRevenueDTO objects containing date and total revenue per day.
      */
     public List<DailyRevenueDTO> getDailyRevenue() {
-        List<Object[]> results = purchaseRepository.sumRevenueByDate();
+        List<Object[]> results = analyticsQueryCache.get(
+                new AnalyticsQueryCache.Key("daily-revenue", null, null, null, null),
+                () -> purchaseColumnStore.isLoaded()
+                        ? purchaseColumnStore.dailyRevenue(null, null, PurchaseColumnStore.ANY_STATUS)
+                        : revenueDailyRepository.sumRevenueByDate());
         return results.stream()
                 .map(row -> new DailyRevenueDTO(
                         row[0].toString(),                          // Date as String
                         ((BigDecimal) row[1]).doubleValue()))      // Total revenue as double
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Returns the revenue chart series as { label, revenue } rows.
+     * Without a start day the series is grouped by month, otherwise by day.
+     * Served from the in-memory column store once it is loaded, otherwise from the rollup;
+     * results are cached in {@link AnalyticsQueryCache}.
+     *
+     * @param startDay First day to include, or null for all time.
+     * @param status   Status label to filter on, or "all".
+     * @return Rows ordered by label.
+     */
+    public List<Object[]> getRevenueChart(LocalDate startDay, String status) {
+        return analyticsQueryCache.get(
+                new AnalyticsQueryCache.Key("revenue-chart", startDay, status, null, null),
+                () -> loadRevenueChart(startDay, status));
+    }
+
+    private List<Object[]> loadRevenueChart(LocalDate startDay, String status) {
+        boolean byStatus = status != null && !"all".equalsIgnoreCase(status);
+
+        if (purchaseColumnStore.isLoaded()) {
+            int statusCode = PurchaseColumnStore.ANY_STATUS;
+            if (byStatus) {
+                StatusType statusType = statusTypeRepository.findByLabel(status);
+                if (statusType == null) {
+                    return List.of();
+                }
+                statusCode = PurchaseColumnStore.statusCode(statusType);
+            }
+            return startDay != null
+                    ? purchaseColumnStore.dailyRevenue(startDay, null, statusCode)
+                    : purchaseColumnStore.monthlyRevenue(statusCode);
+        }
+
+        if (startDay != null && byStatus) {
+            return revenueDailyRepository.findRevenueByStatusSince(startDay, status);
+        } else if (startDay != null) {
+            return revenueDailyRepository.findRevenueSince(startDay);
+        } else if (byStatus) {
+            return revenueDailyRepository.findRevenueByStatus(status);
+        }
+        return revenueDailyRepository.findMonthlyRevenue();
+    }
+
+    /**
+     * Changes the status of an order and moves it to the matching rollup bucket
+     * in the same transaction.
+     *
+     * @param orderId  The purchase ID.
+     * @param statusId The new status ID.
+     * @return true if both the order and the status exist and the update was applied.
+     */
+    @Transactional
+    public boolean updateStatus(Long orderId, Long statusId) {
+        Optional<Purchase> purchaseOpt = purchaseRepository.findById(orderId);
+        Optional<StatusType> statusOpt = statusTypeRepository.findById(statusId);
+
+        if (purchaseOpt.isEmpty() || statusOpt.isEmpty()) {
+            return false;
+        }
+
+        Purchase purchase = purchaseOpt.get();
+        StatusType oldStatus = purchase.getStatus();
+        purchase.setStatus(statusOpt.get());
+        purchaseRepository.save(purchase);
+        revenueRollupService.moveStatus(purchase, oldStatus, statusOpt.get());
+        eventPublisher.publishEvent(new PurchaseStatusChangedEvent(purchase, oldStatus));
+        return true;
+    }
 }
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Purchase;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.RevenueDailyRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Maintains the {@code revenue_daily} rollup table.
+ * Every write joins the caller's transaction, so the rollup commits or rolls back
+ * together with the purchase change that caused it.
+ */
+@Service
+public class RevenueRollupService {
+
+    /** Status bucket used for purchases that have no status assigned. */
+    static final long NO_STATUS = 0L;
+
+    private final RevenueDailyRepository revenueDailyRepository;
+
+    /**
+     * Constructor-based dependency injection for RevenueDailyRepository.
+     *
+     * @param revenueDailyRepository The repository handling the rollup rows.
+     */
+    public RevenueRollupService(RevenueDailyRepository revenueDailyRepository) {
+        this.revenueDailyRepository = revenueDailyRepository;
+    }
+
+    /**
+     * Adds a newly placed purchase to its (day, status) bucket.
+     *
+     * @param purchase The purchase that was just saved.
+     */
+    @Transactional
+    public void recordPurchase(Purchase purchase) {
+        if (purchase.getCreatedAt() == null) {
+            return;
+        }
+        revenueDailyRepository.addToDay(purchase.getCreatedAt().toLocalDate(),
+                statusKey(purchase.getStatus()), 1, totalOf(purchase));
+    }
+
+    /**
+     * Moves a purchase from its old status bucket to the new one on the same day.
+     *
+     * @param purchase  The purchase whose status changed.
+     * @param oldStatus The status before the change (may be null).
+     * @param newStatus The status after the change (may be null).
+     */
+    @Transactional
+    public void moveStatus(Purchase purchase, StatusType oldStatus, StatusType newStatus) {
+        long from = statusKey(oldStatus);
+        long to = statusKey(newStatus);
+        if (from == to || purchase.getCreatedAt() == null) {
+            return;
+        }
+        LocalDate day = purchase.getCreatedAt().toLocalDate();
+        BigDecimal total = totalOf(purchase);
+        revenueDailyRepository.addToDay(day, from, -1, total.negate());
+        revenueDailyRepository.addToDay(day, to, 1, total);
+    }
+
+    /**
+     * Recomputes the whole rollup from the purchase table.
+     * Used on first start-up and when the rollup is suspected to have drifted.
+     *
+     * @return The number of rollup rows written.
+     */
+    @Transactional
+    public int rebuild() {
+        revenueDailyRepository.deleteAllRows();
+        return revenueDailyRepository.rebuildFromPurchases();
+    }
+
+    /**
+     * Checks whether the rollup table holds any rows yet.
+     */
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return revenueDailyRepository.count() == 0;
+    }
+
+    private static long statusKey(StatusType status) {
+        return status != null && status.getId() != null ? status.getId() : NO_STATUS;
+    }
+
+    private static BigDecimal totalOf(Purchase purchase) {
+        return purchase.getTotal() != null ? purchase.getTotal() : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,682 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers SSE events to subscribers without blocking the thread that publishes them.
+ * <p>
+ * Every subscriber listens to one or more channels (e.g. {@code chat:42}) and has a bounded queue.
+ * A browser normally holds a single multiplexed stream ({@link #openStream}) whose channels
+ * change over time; its events carry the channel ({@code {"topic": ..., "data": ...}}) so one
+ * connection can serve every widget. Event data is encoded to JSON once, when it is published, and
+ * the same bytes are written to every subscriber. Publishing only enqueues; the queues are drained on a dedicated
+ * executor, one task per subscriber at a time, so a slow client delays nobody but itself.
+ * The executor keeps {@code app.sse.dispatch-threads} threads and adds more, up to
+ * {@code app.sse.max-dispatch-threads}, while sends are blocked on clients that stopped reading.
+ * A subscriber is evicted when its queue overflows, when a send has been stuck for
+ * {@code app.sse.stall-ms}, when a send fails, or when its emitter times out
+ * ({@code app.sse.emitter-timeout-ms}; browsers reconnect on their own). Eviction cannot
+ * interrupt a blocked write: the connector's write timeout ({@code server.tomcat.connection-timeout},
+ * set to the stall time) fails it and frees the thread.
+ * Heartbeat comments every {@code app.sse.heartbeat-ms} keep proxies from closing idle streams
+ * and expose dead connections.
+ * <p>
+ * Published events get increasing IDs ({@code millis << 12 | sequence}) and the last
+ * {@code app.sse.replay-buffer} events of each channel are kept, so a client reconnecting with
+ * {@code Last-Event-ID} is sent only what it missed. When the gap is larger than the buffer,
+ * the channel's {@link CatchUp} reloads the missed events from the database instead. When even
+ * that would be too many, the client gets a {@value #RELOAD_EVENT} event and reloads the page.
+ */
+@Service
+public class SseDispatcher {
+
+    /**
+     * Reloads the events of a channel from the database when they are no longer buffered.
+     */
+    @FunctionalInterface
+    public interface CatchUp {
+        /**
+         * @param channel the channel to catch up
+         * @param since   time of the last event the client received
+         * @return event data published after {@code since}, oldest first (duplicates are tolerated),
+         * or null if more were missed than can be sent
+         */
+        List<?> eventsSince(String channel, Date since);
+    }
+
+    /**
+     * Replay also covers this much time before the client's last event, because events of
+     * different channels can reach a stream slightly out of ID order.
+     */
+    private static final long REPLAY_SLACK_MILLIS = 1000;
+
+    /** Sent on a channel instead of its missed events when its {@link CatchUp} gives up. */
+    public static final String RELOAD_EVENT = "reload";
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final Map<String, Subscriber> streams = new ConcurrentHashMap<>();
+    private final Map<String, CatchUpSource> catchUps = new ConcurrentHashMap<>();
+    private final AtomicLong lastEventId = new AtomicLong();
+    private final ThreadPoolExecutor executor;
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final int replayCapacity;
+    private final long emitterTimeoutMillis;
+    private final long stallMillis;
+    private final long replayRetentionMillis;
+
+    private final AtomicLong evictedSlow = new AtomicLong();
+    private final AtomicLong evictedDead = new AtomicLong();
+    private final AtomicLong replayedFromBuffer = new AtomicLong();
+    private final AtomicLong replayedFromDatabase = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+
+    /**
+     * @param objectMapper          encodes event data (the application's JSON settings)
+     * @param threads               number of threads writing to clients
+     * @param maxThreads            most threads writing to clients while some sends are blocked
+     * @param queueCapacity         events buffered per subscriber before it is evicted
+     * @param replayCapacity        recent events kept per channel for reconnecting clients
+     * @param emitterTimeoutMillis  lifetime of an emitter before the client has to reconnect
+     * @param stallMillis           longest time a single send may block before the subscriber is evicted
+     * @param replayRetentionMillis how long the buffer of a channel without subscribers or events is kept
+     */
+    public SseDispatcher(ObjectMapper objectMapper,
+                         @Value("${app.sse.dispatch-threads:4}") int threads,
+                         @Value("${app.sse.max-dispatch-threads:64}") int maxThreads,
+                         @Value("${app.sse.queue-capacity:256}") int queueCapacity,
+                         @Value("${app.sse.replay-buffer:128}") int replayCapacity,
+                         @Value("${app.sse.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                         @Value("${app.sse.stall-ms:10000}") long stallMillis,
+                         @Value("${app.sse.replay-retention-ms:600000}") long replayRetentionMillis) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        // No task queue: a drain runs on an idle thread or a new one, never behind a blocked send
+        this.executor = new ThreadPoolExecutor(threads, Math.max(threads, maxThreads),
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+            Thread t = new Thread(r, "sse-dispatch-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.replayCapacity = replayCapacity;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.stallMillis = stallMillis;
+        this.replayRetentionMillis = replayRetentionMillis;
+    }
+
+    /**
+     * Registers how the channels starting with a prefix are caught up from the database.
+     *
+     * @param channelPrefix channel name or prefix (e.g. {@code chat:})
+     * @param eventName     SSE event name of the reloaded events
+     * @param catchUp       loads the missed events
+     */
+    public void registerCatchUp(String channelPrefix, String eventName, CatchUp catchUp) {
+        catchUps.put(channelPrefix, new CatchUpSource(eventName, catchUp));
+    }
+
+    /**
+     * Creates an emitter subscribed to a channel.
+     *
+     * @param channel the channel to receive events from
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(String channel) {
+        return subscribe(channel, null, null, null);
+    }
+
+    /**
+     * Creates an emitter subscribed to a channel, first replaying what the client missed.
+     *
+     * @param channel     the channel to receive events from
+     * @param lastEventId the client's {@code Last-Event-ID} (null on a first connect)
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(String channel, Long lastEventId) {
+        return subscribe(channel, lastEventId, null, null);
+    }
+
+    /**
+     * Creates an emitter subscribed to a channel and queues a first event for it alone
+     * (e.g. the current state).
+     *
+     * @param channel     the channel to receive events from
+     * @param lastEventId the client's {@code Last-Event-ID} (null on a first connect)
+     * @param initialName name of the first event (null for none)
+     * @param initialData data of the first event
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(String channel, Long lastEventId, String initialName, Object initialData) {
+        Subscriber subscriber = newSubscriber(null, null);
+        if (initialName != null) {
+            enqueue(subscriber, encode(0, null, initialName, initialData));
+        }
+        join(subscriber, channel, lastEventId);
+        return subscriber.emitter;
+    }
+
+    /**
+     * Opens a multiplexed stream. Its first event, {@code ready}, carries the stream ID
+     * used to change its channels with {@link #setChannels}.
+     *
+     * @param streamId    ID of the new stream
+     * @param owner       name of the user the stream belongs to
+     * @param channels    initial channels
+     * @param lastEventId the client's {@code Last-Event-ID} (null on a first connect)
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter openStream(String streamId, String owner, Collection<String> channels, Long lastEventId) {
+        Subscriber subscriber = newSubscriber(streamId, owner);
+        streams.put(streamId, subscriber);
+        enqueue(subscriber, encode(0, null, "ready", Map.of("stream", streamId)));
+        for (String channel : channels) {
+            join(subscriber, channel, lastEventId);
+        }
+        return subscriber.emitter;
+    }
+
+    /**
+     * Replaces the channels of a multiplexed stream.
+     *
+     * @param streamId ID returned in the stream's {@code ready} event
+     * @param owner    name of the user making the change (must own the stream)
+     * @param channels the channels the stream should listen to from now on
+     * @return the channels that were added, or null if there is no such stream for this user
+     */
+    public Set<String> setChannels(String streamId, String owner, Collection<String> channels) {
+        Subscriber subscriber = streams.get(streamId);
+        if (subscriber == null || subscriber.closed || !subscriber.owner.equals(owner)) {
+            return null;
+        }
+        synchronized (subscriber) {
+            Set<String> added = new LinkedHashSet<>(channels);
+            added.removeAll(subscriber.channels);
+            for (String channel : new ArrayList<>(subscriber.channels)) {
+                if (!channels.contains(channel)) {
+                    leave(subscriber, channel);
+                }
+            }
+            for (String channel : added) {
+                join(subscriber, channel, null);
+            }
+            return added;
+        }
+    }
+
+    /**
+     * Queues an event for one multiplexed stream only (e.g. the current state of a channel it just joined).
+     *
+     * @param streamId the stream
+     * @param channel  the channel the event belongs to
+     * @param name     the SSE event name
+     * @param data     the event data
+     */
+    public void sendTo(String streamId, String channel, String name, Object data) {
+        Subscriber subscriber = streams.get(streamId);
+        if (subscriber != null) {
+            enqueue(subscriber, encode(0, channel, name, data));
+        }
+    }
+
+    /**
+     * Queues an event for every subscriber of a channel and returns immediately.
+     * The event is also kept in the channel's replay buffer.
+     *
+     * @param channel the channel to publish to
+     * @param name    the SSE event name
+     * @param data    the event data (encoded to JSON once, here)
+     */
+    public void publish(String channel, String name, Object data) {
+        byte[] json = toJson(data);
+        if (json != null) {
+            publishJson(channel, name, json);
+        }
+    }
+
+    /**
+     * Same as {@link #publish}, for data that is already encoded as JSON (e.g. read from the outbox).
+     *
+     * @param channel the channel to publish to
+     * @param name    the SSE event name
+     * @param json    the event data as UTF-8 JSON
+     */
+    public void publishJson(String channel, String name, byte[] json) {
+        Channel target = channels.computeIfAbsent(channel, Channel::new);
+        synchronized (target) {
+            Event event = new Event(nextEventId(), channel, name, json);
+            target.append(event);
+            for (Subscriber subscriber : target.subscribers) {
+                enqueue(subscriber, event);
+            }
+        }
+    }
+
+    /**
+     * @return true if the channel has at least one subscriber
+     */
+    public boolean hasSubscribers(String channel) {
+        Channel target = channels.get(channel);
+        return target != null && !target.subscribers.isEmpty();
+    }
+
+    /**
+     * Queues a heartbeat comment for every subscriber, evicts the ones whose current send has
+     * been blocked for too long and drops the replay buffers of channels idle for too long.
+     */
+    @Scheduled(fixedDelayString = "${app.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : allSubscribers()) {
+            long since = subscriber.sendingSince;
+            if (since > 0 && now - since > stallMillis) {
+                evictedSlow.incrementAndGet();
+                evict(subscriber);
+            } else {
+                enqueue(subscriber, Event.HEARTBEAT);
+            }
+        }
+
+        for (String name : new ArrayList<>(channels.keySet())) {
+            channels.computeIfPresent(name, (n, channel) ->
+                    channel.subscribers.isEmpty() && now - channel.lastEventAt > replayRetentionMillis ? null : channel);
+        }
+    }
+
+    /**
+     * Returns subscriber counts, queue depths, evictions and replays, overall and per channel type
+     * (the part of the channel name before ':').
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, long[]> byType = new LinkedHashMap<>();
+        for (Channel channel : channels.values()) {
+            String type = channel.name.contains(":") ? channel.name.substring(0, channel.name.indexOf(':')) : channel.name;
+            long[] totals = byType.computeIfAbsent(type, t -> new long[3]);
+            totals[2]++;
+            for (Subscriber subscriber : channel.subscribers) {
+                totals[0]++;
+                totals[1] += subscriber.queue.size();
+            }
+        }
+
+        Set<Subscriber> all = allSubscribers();
+        long queued = 0;
+        long maxDepth = 0;
+        for (Subscriber subscriber : all) {
+            int depth = subscriber.queue.size();
+            queued += depth;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", (long) all.size());
+        stats.put("multiplexedStreams", (long) streams.size());
+        stats.put("queuedEvents", queued);
+        stats.put("maxQueueDepth", maxDepth);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("dispatchThreads", (long) executor.getPoolSize());
+        stats.put("activeDispatchThreads", (long) executor.getActiveCount());
+        stats.put("evictedSlow", evictedSlow.get());
+        stats.put("evictedDead", evictedDead.get());
+        stats.put("replayedFromBuffer", replayedFromBuffer.get());
+        stats.put("replayedFromDatabase", replayedFromDatabase.get());
+        stats.put("reloads", reloads.get());
+        Map<String, Map<String, Long>> channelStats = new LinkedHashMap<>();
+        byType.forEach((type, totals) -> channelStats.put(type,
+                Map.of("subscriptions", totals[0], "queuedEvents", totals[1], "buffers", totals[2])));
+        stats.put("channels", channelStats);
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Next event ID: the current time in milliseconds shifted left by 12 bits plus a sequence,
+     * strictly increasing even if the clock stalls or more than 4096 events share a millisecond.
+     */
+    private long nextEventId() {
+        long now = System.currentTimeMillis() << 12;
+        return lastEventId.accumulateAndGet(now, (previous, time) -> time > previous ? time : previous + 1);
+    }
+
+    private Subscriber newSubscriber(String streamId, String owner) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(streamId, owner, emitter, queueCapacity);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(ex -> remove(subscriber));
+        return subscriber;
+    }
+
+    /**
+     * Adds a subscriber to a channel. With a {@code lastEventId}, first queues the buffered events
+     * it missed, or the events reloaded from the database when the buffer no longer reaches back that far.
+     */
+    private void join(Subscriber subscriber, String name, Long lastEventId) {
+        subscriber.channels.add(name);
+        boolean[] gap = new boolean[1];
+        channels.compute(name, (n, existing) -> {
+            Channel channel = existing != null ? existing : new Channel(n);
+            synchronized (channel) {
+                // Under the channel lock, so no event is published between the replay and the subscription
+                if (lastEventId != null) {
+                    List<Event> missed = channel.since(lastEventId - (REPLAY_SLACK_MILLIS << 12));
+                    if (missed == null) {
+                        gap[0] = true;
+                    } else {
+                        replayedFromBuffer.addAndGet(missed.size());
+                        missed.forEach(event -> enqueue(subscriber, event));
+                    }
+                }
+                channel.subscribers.add(subscriber);
+            }
+            return channel;
+        });
+        if (gap[0]) {
+            catchUp(subscriber, name, lastEventId);
+        }
+        if (subscriber.closed) {
+            // Removed concurrently: undo so the channel does not keep a dead subscriber
+            leave(subscriber, name);
+        }
+    }
+
+    private void catchUp(Subscriber subscriber, String channel, long lastEventId) {
+        for (Map.Entry<String, CatchUpSource> entry : catchUps.entrySet()) {
+            if (channel.startsWith(entry.getKey())) {
+                CatchUpSource source = entry.getValue();
+                Date since = new Date((lastEventId >>> 12) - REPLAY_SLACK_MILLIS);
+                List<?> events = source.catchUp().eventsSince(channel, since);
+                if (events == null) {
+                    reloads.incrementAndGet();
+                    enqueue(subscriber, encode(0, channel, RELOAD_EVENT, Map.of("since", since.getTime())));
+                    return;
+                }
+                replayedFromDatabase.addAndGet(events.size());
+                for (Object data : events) {
+                    enqueue(subscriber, encode(0, channel, source.eventName(), data));
+                }
+                return;
+            }
+        }
+    }
+
+    private void leave(Subscriber subscriber, String name) {
+        subscriber.channels.remove(name);
+        Channel channel = channels.get(name);
+        if (channel != null) {
+            channel.subscribers.remove(subscriber);
+        }
+    }
+
+    private Set<Subscriber> allSubscribers() {
+        Set<Subscriber> all = new HashSet<>();
+        channels.values().forEach(channel -> all.addAll(channel.subscribers));
+        all.addAll(streams.values());
+        return all;
+    }
+
+    /**
+     * @return the event with its data encoded, or null if the data cannot be encoded
+     */
+    private Event encode(long id, String channel, String name, Object data) {
+        byte[] json = toJson(data);
+        return json != null ? new Event(id, channel, name, json) : null;
+    }
+
+    /**
+     * Encodes event data to UTF-8 JSON, or returns null (and logs) when it cannot be encoded.
+     */
+    private byte[] toJson(Object data) {
+        try {
+            return objectMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException ex) {
+            System.out.println("⚠️ SSE event dropped, data cannot be encoded: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Event event) {
+        if (event == null || subscriber.closed) {
+            return;
+        }
+        if (!subscriber.queue.offer(event)) {
+            // Client cannot keep up: drop it instead of buffering without bound
+            evictedSlow.incrementAndGet();
+            evict(subscriber);
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException ex) {
+                // Shutting down, or every thread is blocked: the next event or heartbeat retries
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes the queued events of one subscriber; runs on the dispatch executor.
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            Event event;
+            while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                subscriber.sendingSince = System.currentTimeMillis();
+                try {
+                    subscriber.emitter.send(event.toBuilder(subscriber.streamId != null));
+                } catch (IOException | IllegalStateException ex) {
+                    // Disconnected or already completed
+                    evictedDead.incrementAndGet();
+                    evict(subscriber);
+                    return;
+                } finally {
+                    subscriber.sendingSince = 0;
+                }
+            }
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // An event may have been queued after the last poll but before the flag was cleared
+        if (!subscriber.closed && !subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void evict(Subscriber subscriber) {
+        remove(subscriber);
+        if (subscriber.sendingSince > 0) {
+            // complete() waits for the blocked send to give up; do not hold the caller meanwhile
+            try {
+                executor.execute(() -> complete(subscriber));
+            } catch (RejectedExecutionException ex) {
+                // No thread to spare: the write timeout ends the connection instead
+            }
+            return;
+        }
+        complete(subscriber);
+    }
+
+    private static void complete(Subscriber subscriber) {
+        try {
+            subscriber.emitter.complete();
+        } catch (RuntimeException ex) {
+            // Already completed
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscriber.queue.clear();
+        if (subscriber.streamId != null) {
+            streams.remove(subscriber.streamId, subscriber);
+        }
+        for (String channel : new ArrayList<>(subscriber.channels)) {
+            leave(subscriber, channel);
+        }
+    }
+
+    private record CatchUpSource(String eventName, CatchUp catchUp) {
+    }
+
+    /**
+     * An event waiting in subscriber queues; a null name means a heartbeat comment.
+     * The same instance, and so the same JSON bytes, is queued for every subscriber.
+     * Events with a channel are wrapped as {@code {"topic": ..., "data": ...}} on multiplexed
+     * streams; events with ID 0 (state, catch-up) are sent without an ID.
+     */
+    private static final class Event {
+        static final Event HEARTBEAT = new Event(0, null, null, null);
+
+        final long id;
+        final String channel;
+        final String name;
+        final byte[] json;
+        /** The data wrapped with its topic, built on first use by a multiplexed stream. */
+        private volatile byte[] topicJson;
+
+        Event(long id, String channel, String name, byte[] json) {
+            this.id = id;
+            this.channel = channel;
+            this.name = name;
+            this.json = json;
+        }
+
+        SseEmitter.SseEventBuilder toBuilder(boolean multiplexed) {
+            if (name == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            byte[] payload = multiplexed && channel != null ? topicJson() : json;
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(payload, MediaType.APPLICATION_JSON);
+            return id != 0 ? builder.id(Long.toString(id)) : builder;
+        }
+
+        private byte[] topicJson() {
+            byte[] wrapped = topicJson;
+            if (wrapped == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(json.length + channel.length() + 24);
+                out.writeBytes("{\"topic\":\"".getBytes(StandardCharsets.UTF_8));
+                out.writeBytes(JsonStringEncoder.getInstance().quoteAsUTF8(channel));
+                out.writeBytes("\",\"data\":".getBytes(StandardCharsets.UTF_8));
+                out.writeBytes(json);
+                out.write('}');
+                wrapped = out.toByteArray();
+                topicJson = wrapped; // racing threads build identical arrays
+            }
+            return wrapped;
+        }
+    }
+
+    /**
+     * A channel: its subscribers and a ring buffer of its most recent events.
+     * The buffer is guarded by the channel's monitor.
+     */
+    private final class Channel {
+        final String name;
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        final Event[] ring = new Event[Math.max(replayCapacity, 0)];
+        int next;
+        int size;
+        /** ID of the newest event that fell out of the buffer (0 if none). */
+        long droppedUpTo;
+        volatile long lastEventAt = System.currentTimeMillis();
+
+        Channel(String name) {
+            this.name = name;
+        }
+
+        void append(Event event) {
+            lastEventAt = System.currentTimeMillis();
+            if (ring.length == 0) {
+                droppedUpTo = event.id;
+                return;
+            }
+            if (size == ring.length) {
+                droppedUpTo = ring[next].id;
+            } else {
+                size++;
+            }
+            ring[next] = event;
+            next = (next + 1) % ring.length;
+        }
+
+        /**
+         * @return the buffered events newer than {@code lastEventId}, oldest first,
+         *         or null if some of them are no longer buffered
+         */
+        List<Event> since(long lastEventId) {
+            if (lastEventId < droppedUpTo) {
+                return null;
+            }
+            List<Event> missed = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Event event = ring[(next - size + i + ring.length) % ring.length];
+                if (event.id > lastEventId) {
+                    missed.add(event);
+                }
+            }
+            return missed;
+        }
+    }
+
+    /**
+     * One connected client: its emitter, channels, bounded queue and drain state.
+     */
+    private static final class Subscriber {
+        final String streamId;
+        final String owner;
+        final SseEmitter emitter;
+        final Set<String> channels = ConcurrentHashMap.newKeySet();
+        final BlockingQueue<Event> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+        volatile long sendingSince;
+
+        Subscriber(String streamId, String owner, SseEmitter emitter, int capacity) {
+            this.streamId = streamId;
+            this.owner = owner;
+            this.emitter = emitter;
+            // Linked, so an idle subscriber holds no preallocated slots
+            this.queue = new LinkedBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo.service;
+
+import com.example.demo.events.PurchaseCreatedEvent;
+import com.example.demo.model.LineItem;
+import com.example.demo.model.Purchase;
+import com.example.demo.repository.ProductSalesDailyRepository;
+import com.example.demo.util.SpaceSaving;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Approximate, bounded-memory top-selling products for the short windows (today / this week).
+ * <p>
+ * Keeps one {@link SpaceSaving} summary per day for the last {@link #WINDOW_DAYS} days,
+ * fed from checkout line items after commit. A window query merges the daily summaries,
+ * so it never touches the database and its cost depends only on the summary capacity.
+ * Memory stays bounded by capacity * days regardless of catalog size: product names are kept
+ * only for products some daily summary tracks.
+ * <p>
+ * Rows have the same shape as the exact rollup: { productName, quantity, revenue, productId }.
+ */
+@Service
+public class TopProductsSketch {
+
+    /** Number of daily summaries kept ("week" spans today and the 7 previous days). */
+    static final int WINDOW_DAYS = 8;
+
+    private final ProductSalesDailyRepository productSalesDailyRepository;
+    private final int capacity;
+
+    private final Map<LocalDate, SpaceSaving> days = new ConcurrentHashMap<>();
+    private final Map<Long, String> productNames = new ConcurrentHashMap<>();
+
+    /**
+     * @param productSalesDailyRepository rollup used to warm the summaries at startup
+     * @param capacity                    products tracked per day ({@code app.analytics.top-products-capacity}, default 200)
+     */
+    public TopProductsSketch(ProductSalesDailyRepository productSalesDailyRepository,
+                             @Value("${app.analytics.top-products-capacity:200}") int capacity) {
+        this.productSalesDailyRepository = productSalesDailyRepository;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Warms the daily summaries from the product_sales_daily rollup once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDate from = LocalDate.now().minusDays(WINDOW_DAYS - 1);
+        for (Object[] row : productSalesDailyRepository.findDailySalesSince(from)) {
+            offer((LocalDate) row[2], (Long) row[0], (String) row[1], (Long) row[3], toCents((BigDecimal) row[4]));
+        }
+    }
+
+    /**
+     * Feeds the line items of a purchase once the checkout transaction has committed.
+     *
+     * @param ev The event containing the new purchase.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handlePurchaseCreated(PurchaseCreatedEvent ev) {
+        Purchase purchase = ev.getPurchase();
+        if (purchase.getCreatedAt() == null) {
+            return;
+        }
+        LocalDate day = purchase.getCreatedAt().toLocalDate();
+        for (LineItem item : purchase.getLineItems()) {
+            BigDecimal unitPrice = item.getUnitPrice() != null ? item.getUnitPrice() : BigDecimal.ZERO;
+            offer(day, item.getProduct().getId(), item.getProduct().getName(), item.getQuantity(),
+                    toCents(unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()))));
+        }
+    }
+
+    /**
+     * Checks whether a time filter can be answered by the sketch.
+     *
+     * @param time the top-products time filter (today, week, month, all)
+     */
+    public boolean supports(String time) {
+        return "today".equals(time) || "week".equals(time);
+    }
+
+    /**
+     * Returns approximate top-selling products since {@code startDay} (at most {@link #WINDOW_DAYS} days back).
+     *
+     * @param startDay first day of the window
+     * @param search   case-insensitive name filter (may be empty)
+     * @param sortBy   quantity, name or revenue
+     */
+    public List<Object[]> findTopSelling(LocalDate startDay, String search, String sortBy) {
+        SpaceSaving window = new SpaceSaving(capacity);
+        for (LocalDate day = startDay; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            SpaceSaving summary = days.get(day);
+            if (summary != null) {
+                synchronized (summary) {
+                    window.merge(summary);
+                }
+            }
+        }
+
+        String term = search == null ? "" : search.toLowerCase();
+        List<Object[]> rows = new ArrayList<>();
+        for (SpaceSaving.Counter c : window.top()) {
+            String name = productNames.get(c.getKey());
+            if (name != null && name.toLowerCase().contains(term)) {
+                rows.add(new Object[]{name, c.getCount(), BigDecimal.valueOf(c.getSecondary(), 2), c.getKey()});
+            }
+        }
+
+        if ("name".equals(sortBy)) {
+            rows.sort(Comparator.comparing(row -> (String) row[0]));
+        } else if ("revenue".equals(sortBy)) {
+            rows.sort(Comparator.comparing((Object[] row) -> (BigDecimal) row[2]).reversed());
+        }
+        return rows;
+    }
+
+    /**
+     * Stops reporting a product (called when the product is deleted).
+     */
+    public void removeProduct(Long productId) {
+        productNames.remove(productId);
+        for (SpaceSaving summary : days.values()) {
+            synchronized (summary) {
+                summary.remove(productId);
+            }
+        }
+    }
+
+    private void offer(LocalDate day, long productId, String name, long qty, long cents) {
+        if (day.isBefore(LocalDate.now().minusDays(WINDOW_DAYS - 1))) {
+            return;
+        }
+        if (!days.containsKey(day)) {
+            evictOldDays();
+        }
+        SpaceSaving summary = days.computeIfAbsent(day, d -> new SpaceSaving(capacity));
+        Long replaced;
+        synchronized (summary) {
+            replaced = summary.offer(productId, qty, cents);
+        }
+        productNames.put(productId, name);
+        if (replaced != null) {
+            // Atomic per key: a concurrent offer of the same product either is seen as tracking
+            // it here or puts its name back afterwards
+            productNames.computeIfPresent(replaced, (id, n) -> isTracked(id) ? n : null);
+        }
+    }
+
+    private boolean isTracked(long productId) {
+        for (SpaceSaving summary : days.values()) {
+            synchronized (summary) {
+                if (summary.contains(productId)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Drops summaries that fell out of the window, and the names of products no longer tracked.
+     */
+    private void evictOldDays() {
+        LocalDate oldest = LocalDate.now().minusDays(WINDOW_DAYS - 1);
+        if (!days.keySet().removeIf(day -> day.isBefore(oldest))) {
+            return;
+        }
+        Set<Long> tracked = new HashSet<>();
+        for (SpaceSaving summary : days.values()) {
+            synchronized (summary) {
+                summary.top().forEach(c -> tracked.add(c.getKey()));
+            }
+        }
+        productNames.keySet().retainAll(tracked);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+}
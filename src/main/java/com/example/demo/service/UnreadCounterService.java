@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.UnreadCountsDTO;
+import com.example.demo.repository.ConversationRepository;
+import com.example.demo.repository.MessageEntryRepository;
+import com.example.demo.repository.MessageRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the admin unread badges (unanswered contact messages, unread user chat messages)
+ * in atomic counters instead of counting rows on every admin request.
+ * <p>
+ * The counters are adjusted by the controllers that create, answer, read or delete messages,
+ * re-counted from the database periodically to correct any drift, and pushed to open
+ * admin tabs over SSE (at most once per second) whenever they change.
+ */
+@Service
+public class UnreadCounterService {
+
+    private final MessageRepository messageRepository;
+    private final MessageEntryRepository messageEntryRepository;
+    private final ConversationRepository conversationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong unansweredMessages = new AtomicLong();
+    private final AtomicLong unreadChatMessages = new AtomicLong();
+    private final AtomicBoolean changed = new AtomicBoolean();
+
+    /** Dispatcher channel of the admin badges. */
+    public static final String CHANNEL = "unread";
+
+    private final SseDispatcher dispatcher;
+
+    /**
+     * Constructor-based dependency injection.
+     *
+     * @param messageRepository      The repository of contact-form messages.
+     * @param messageEntryRepository The repository of chat messages.
+     * @param conversationRepository The repository holding the per-conversation unread counters.
+     * @param dispatcher             The dispatcher that owns the admin tab emitters.
+     * @param transactionManager     Used to read a counter around its update in one transaction.
+     */
+    public UnreadCounterService(MessageRepository messageRepository,
+                                MessageEntryRepository messageEntryRepository,
+                                ConversationRepository conversationRepository,
+                                SseDispatcher dispatcher,
+                                PlatformTransactionManager transactionManager) {
+        this.messageRepository = messageRepository;
+        this.messageEntryRepository = messageEntryRepository;
+        this.conversationRepository = conversationRepository;
+        this.dispatcher = dispatcher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Re-counts both badges from the database (at startup, then every
+     * {@code app.unread.reconcile-interval-ms}, default 5 minutes).
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.unread.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long messages = messageRepository.countByAnsweredFalse();
+        long chat = messageEntryRepository.countUnreadByAdmin();
+        if (unansweredMessages.getAndSet(messages) != messages | unreadChatMessages.getAndSet(chat) != chat) {
+            changed.set(true);
+        }
+    }
+
+    /** A user submitted a new contact-form message. */
+    public void messageReceived() {
+        add(unansweredMessages, 1);
+    }
+
+    /** An admin answered a contact-form message that was still unanswered. */
+    public void messageAnswered() {
+        add(unansweredMessages, -1);
+    }
+
+    /** A user sent a chat message that no admin has read yet. */
+    public void chatMessageReceived() {
+        add(unreadChatMessages, 1);
+    }
+
+    /**
+     * User chat messages were marked as read by an admin (or deleted while unread).
+     *
+     * @param count number of messages that stopped being unread
+     */
+    public void chatMessagesRead(long count) {
+        if (count > 0) {
+            add(unreadChatMessages, -count);
+        }
+    }
+
+    /**
+     * An admin read a conversation up to a message: moves its read watermark there and takes
+     * the messages that stopped being unread off the badge. The conversation's counter is read
+     * before and after the update in one transaction, so messages that arrived meanwhile and
+     * the recount done by the update are both taken into account.
+     *
+     * @param conversationId the conversation read
+     * @param upToMessageId  the newest message shown
+     * @return false if the watermark was already at or past that message
+     */
+    public boolean conversationRead(Long conversationId, long upToMessageId) {
+        Long read = transactionTemplate.execute(status -> {
+            Long before = conversationRepository.lockUnreadByAdmin(conversationId);
+            if (before == null || conversationRepository.markReadByAdmin(conversationId, upToMessageId) == 0) {
+                return null;
+            }
+            return before - conversationRepository.lockUnreadByAdmin(conversationId);
+        });
+        if (read == null) {
+            return false;
+        }
+        chatMessagesRead(read);
+        return true;
+    }
+
+    /**
+     * @return the number of unanswered contact-form messages
+     */
+    public long unansweredMessages() {
+        return unansweredMessages.get();
+    }
+
+    /**
+     * @return the number of user chat messages not yet read by an admin
+     */
+    public long unreadChatMessages() {
+        return unreadChatMessages.get();
+    }
+
+    /**
+     * Registers a new SseEmitter for an admin tab and sends it the current counts.
+     * The dispatcher cleans up emitters when clients disconnect, time out or fall behind.
+     *
+     * @return A new SseEmitter instance.
+     */
+    public SseEmitter addEmitter() {
+        return dispatcher.subscribe(CHANNEL, null, "unread", snapshot());
+    }
+
+    /**
+     * Sends the current counts to all admin tabs if they changed, at most once per second.
+     */
+    @Scheduled(fixedRate = 1000)
+    public void flush() {
+        if (!changed.getAndSet(false) || !dispatcher.hasSubscribers(CHANNEL)) {
+            return;
+        }
+        dispatcher.publish(CHANNEL, "unread", snapshot());
+    }
+
+    /**
+     * @return the current counts of both badges
+     */
+    public UnreadCountsDTO snapshot() {
+        return new UnreadCountsDTO(unansweredMessages.get(), unreadChatMessages.get());
+    }
+
+    private void add(AtomicLong counter, long delta) {
+        // Never show a negative badge if a decrement races with a reconcile
+        counter.accumulateAndGet(delta, (current, d) -> Math.max(0, current + d));
+        changed.set(true);
+    }
+}
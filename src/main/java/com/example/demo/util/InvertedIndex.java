@@ -0,0 +1,290 @@
+package com.example.demo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory inverted index over short texts (e.g. chat messages), each belonging to a group
+ * (e.g. a conversation). Finds the texts that may contain a phrase without scanning every text.
+ * <p>
+ * Texts are split into lower-case word tokens; each token maps to the IDs of the texts containing it.
+ * Only the posting lists and the group of each text are kept, not the texts themselves.
+ * {@link #search} returns the texts having, for every word of the query, a word starting with it;
+ * the caller loads those texts and confirms the whole phrase with {@link #match}. So a phrase
+ * matches when it occurs in the text and each of its words starts a word in the text.
+ * <p>
+ * Deleted and replaced texts leave stale IDs in the posting lists, which are skipped and dropped
+ * by an occasional compaction. Not thread-safe; callers synchronize.
+ */
+public class InvertedIndex {
+
+    /** Characters of context kept on each side of a match. */
+    private static final int SNIPPET_CONTEXT = 40;
+
+    /** Text around the first match: {@code before + match + after} (with "…" where cut). */
+    public record Snippet(String before, String match, String after) {
+    }
+
+    private final TreeMap<String, LongList> postings = new TreeMap<>();
+    /** Text ID -> group ID. */
+    private final Map<Long, Long> docs = new HashMap<>();
+    private final Map<Long, LongList> docsByGroup = new HashMap<>();
+    private int staleDocs;
+
+    /**
+     * Adds or replaces a text.
+     *
+     * @param docId text ID (e.g. message ID)
+     * @param group group ID (e.g. conversation ID)
+     * @param text  the text (null is treated as empty)
+     */
+    public void put(long docId, long group, String text) {
+        String value = text == null ? "" : text;
+        if (docs.put(docId, group) != null) {
+            staleDocs++;
+        }
+        for (String token : tokens(value)) {
+            postings.computeIfAbsent(token, t -> new LongList()).add(docId);
+        }
+        docsByGroup.computeIfAbsent(group, g -> new LongList()).add(docId);
+        compactIfNeeded();
+    }
+
+    /**
+     * Removes a text (no-op if it is not indexed).
+     */
+    public void remove(long docId) {
+        if (docs.remove(docId) != null) {
+            staleDocs++;
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Removes every text of a group.
+     */
+    public void removeGroup(long group) {
+        LongList ids = docsByGroup.remove(group);
+        if (ids == null) {
+            return;
+        }
+        for (int i = 0; i < ids.size; i++) {
+            Long docGroup = docs.get(ids.values[i]);
+            if (docGroup != null && docGroup == group) {
+                docs.remove(ids.values[i]);
+                staleDocs++;
+            }
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * @return number of indexed texts
+     */
+    public int size() {
+        return docs.size();
+    }
+
+    /**
+     * Finds the texts that may contain the phrase: those having, for every word of the phrase,
+     * a word starting with it. Confirm each with {@link #match} on its text.
+     *
+     * @param phrase the search phrase
+     * @param limit  most candidates returned
+     * @return candidate text IDs, most recently indexed first, each with its group
+     */
+    public Map<Long, Long> search(String phrase, int limit) {
+        return search(phrase, limit, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Same as {@link #search(String, int)}, restricted to some groups and with at most
+     * {@code perGroup} candidates per group, so that one busy group cannot use up the limit.
+     *
+     * @param groups groups to search, or null for all
+     */
+    public Map<Long, Long> search(String phrase, int limit, int perGroup, Set<Long> groups) {
+        String query = phrase == null ? "" : phrase.toLowerCase().trim();
+        if (query.isEmpty()) {
+            return Map.of();
+        }
+
+        // Intersect the texts matching each token, starting with the rarest
+        List<long[]> matches = new ArrayList<>();
+        for (String token : tokens(query)) {
+            long[] ids = prefixMatches(token);
+            Arrays.sort(ids);
+            matches.add(ids);
+        }
+        long[] candidates;
+        if (matches.isEmpty()) {
+            // Phrase without any letters or digits: every text is a candidate
+            candidates = docs.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        } else {
+            matches.sort((a, b) -> Integer.compare(a.length, b.length));
+            candidates = matches.get(0);
+            for (int i = 1; i < matches.size() && candidates.length > 0; i++) {
+                candidates = intersect(candidates, matches.get(i));
+            }
+        }
+
+        Map<Long, Long> result = new LinkedHashMap<>();
+        Map<Long, Integer> perGroupCount = new HashMap<>();
+        long previous = Long.MIN_VALUE;
+        for (int i = candidates.length - 1; i >= 0 && result.size() < limit; i--) {
+            long docId = candidates[i];
+            if (docId == previous) {
+                continue;
+            }
+            previous = docId;
+            Long group = docs.get(docId);
+            if (group == null || (groups != null && !groups.contains(group))) {
+                continue;
+            }
+            if (perGroupCount.merge(group, 1, Integer::sum) <= perGroup) {
+                result.put(docId, group);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks a candidate text for the phrase (case-insensitive).
+     *
+     * @return a snippet around the first occurrence, or null if the text does not contain the phrase
+     */
+    public static Snippet match(String text, String phrase) {
+        String query = phrase == null ? "" : phrase.toLowerCase().trim();
+        if (text == null || query.isEmpty()) {
+            return null;
+        }
+        int at = text.toLowerCase().indexOf(query);
+        return at >= 0 ? snippet(text, at, query.length()) : null;
+    }
+
+    /**
+     * IDs of all texts containing a word that starts with {@code prefix} (may contain duplicates).
+     */
+    private long[] prefixMatches(String prefix) {
+        NavigableMap<String, LongList> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        int total = 0;
+        for (LongList list : range.values()) {
+            total += list.size;
+        }
+        long[] ids = new long[total];
+        int n = 0;
+        for (LongList list : range.values()) {
+            System.arraycopy(list.values, 0, ids, n, list.size);
+            n += list.size;
+        }
+        return ids;
+    }
+
+    /**
+     * Values present in both sorted arrays (duplicates kept once per pair).
+     */
+    private static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static Snippet snippet(String text, int at, int length) {
+        int start = Math.min(at, text.length());
+        int end = Math.min(at + length, text.length());
+        int from = Math.max(0, start - SNIPPET_CONTEXT);
+        int to = Math.min(text.length(), end + SNIPPET_CONTEXT);
+        return new Snippet(
+                (from > 0 ? "…" : "") + text.substring(from, start),
+                text.substring(start, end),
+                text.substring(end, to) + (to < text.length() ? "…" : ""));
+    }
+
+    /**
+     * Distinct lower-case runs of letters and digits.
+     */
+    private static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String lower = text.toLowerCase();
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Drops stale IDs from the posting and group lists once a quarter of the entries are stale.
+     * A replaced text keeps the tokens of its old version until then; they only add candidates.
+     */
+    private void compactIfNeeded() {
+        if (staleDocs <= 1024 || staleDocs * 4 <= docs.size()) {
+            return;
+        }
+        postings.values().removeIf(list -> list.retainLive(docs, null));
+        docsByGroup.entrySet().removeIf(entry -> entry.getValue().retainLive(docs, entry.getKey()));
+        staleDocs = 0;
+    }
+
+    /**
+     * Growable array of text IDs.
+     */
+    private static final class LongList {
+        private long[] values = new long[2];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        /**
+         * Keeps the indexed IDs (of the given group, if any) once each.
+         *
+         * @return true if the list is now empty
+         */
+        boolean retainLive(Map<Long, Long> docs, Long group) {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            int n = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                Long docGroup = docs.get(sorted[i]);
+                if ((i == 0 || sorted[i] != sorted[i - 1]) && docGroup != null && (group == null || docGroup.equals(group))) {
+                    sorted[n++] = sorted[i];
+                }
+            }
+            values = Arrays.copyOf(sorted, Math.max(2, n));
+            size = n;
+            return n == 0;
+        }
+    }
+}
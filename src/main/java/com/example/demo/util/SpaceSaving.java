@@ -0,0 +1,125 @@
+package com.example.demo.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters summary (Metwally et al.) over long keys.
+ * <p>
+ * Keeps at most {@code capacity} counters no matter how many distinct keys are offered.
+ * When a new key arrives and the summary is full, the key with the smallest count is
+ * replaced and its count is inherited as the new key's over-estimation error.
+ * Every key whose true weight exceeds total / capacity is guaranteed to be tracked.
+ * <p>
+ * Each counter also carries a secondary weight (e.g. revenue) maintained the same way.
+ * Not thread-safe; callers synchronize.
+ */
+public class SpaceSaving {
+
+    /**
+     * One tracked key with its (over-)estimated weights.
+     */
+    public static final class Counter {
+        private final long key;
+        private long count;
+        private long error;
+        private long secondary;
+
+        Counter(long key) {
+            this.key = key;
+        }
+
+        public long getKey() { return key; }
+        /** Estimated count; the true count lies in [count - error, count]. */
+        public long getCount() { return count; }
+        /** Upper bound of the over-estimation in {@link #getCount()}. */
+        public long getError() { return error; }
+        /** Estimated secondary weight (e.g. revenue in cents). */
+        public long getSecondary() { return secondary; }
+    }
+
+    private final int capacity;
+    private final Map<Long, Counter> counters;
+
+    /**
+     * @param capacity maximum number of keys tracked
+     */
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Adds weight to a key.
+     *
+     * @param key       the item (e.g. product ID)
+     * @param count     primary weight (e.g. units sold)
+     * @param secondary secondary weight (e.g. revenue in cents)
+     * @return the key replaced to make room for this one, or null if none was
+     */
+    public Long offer(long key, long count, long secondary) {
+        Long replaced = null;
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = new Counter(key);
+            if (counters.size() >= capacity) {
+                Counter min = minCounter();
+                counters.remove(min.key);
+                replaced = min.key;
+                counter.count = min.count;
+                counter.error = min.count;
+                counter.secondary = min.secondary;
+            }
+            counters.put(key, counter);
+        }
+        counter.count += count;
+        counter.secondary += secondary;
+        return replaced;
+    }
+
+    /**
+     * Adds every counter of another summary into this one (used to build multi-day windows).
+     */
+    public void merge(SpaceSaving other) {
+        for (Counter c : other.counters.values()) {
+            offer(c.key, c.count, c.secondary);
+            counters.get(c.key).error += c.error;
+        }
+    }
+
+    /**
+     * @return true if the key is currently tracked
+     */
+    public boolean contains(long key) {
+        return counters.containsKey(key);
+    }
+
+    /**
+     * Stops tracking a key (e.g. a deleted product).
+     */
+    public void remove(long key) {
+        counters.remove(key);
+    }
+
+    /**
+     * Returns all tracked counters ordered by descending count.
+     */
+    public List<Counter> top() {
+        List<Counter> result = new ArrayList<>(counters.values());
+        result.sort(Comparator.comparingLong(Counter::getCount).reversed());
+        return result;
+    }
+
+    private Counter minCounter() {
+        Counter min = null;
+        for (Counter c : counters.values()) {
+            if (min == null || c.count < min.count) {
+                min = c;
+            }
+        }
+        return min;
+    }
+}
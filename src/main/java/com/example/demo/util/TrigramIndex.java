@@ -0,0 +1,259 @@
+package com.example.demo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * In-memory trigram index for case-insensitive substring search over a few text fields per record.
+ * <p>
+ * Every record gets a dense document number; each field value is split into overlapping
+ * three-character grams and the document number is appended to the posting list of each gram.
+ * A query term of three or more characters is answered by intersecting the (sorted) posting
+ * lists of its grams and then verifying the few candidates with {@code contains}; shorter terms
+ * fall back to a scan of the in-memory values.
+ * <p>
+ * Updates re-add the record under a new document number and tombstone the old one; the
+ * structure compacts itself once a quarter of the documents are dead.
+ * Not thread-safe; callers synchronize.
+ */
+public class TrigramIndex {
+
+    /** Result page: total number of matches plus the record IDs of the requested page, best first. */
+    public record Page(int total, List<Long> ids) {
+    }
+
+    private final int fieldCount;
+
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<Long, Integer> docById = new HashMap<>();
+    private long[] ids = new long[1024];
+    private String[][] values = new String[1024][];
+    private final BitSet dead = new BitSet();
+    private int docCount;
+    private int deadCount;
+
+    /**
+     * @param fieldCount number of text fields per record (e.g. 2 for username and email)
+     */
+    public TrigramIndex(int fieldCount) {
+        this.fieldCount = fieldCount;
+    }
+
+    /**
+     * Adds or replaces a record.
+     *
+     * @param id          record ID
+     * @param fieldValues one value per field (null is treated as empty)
+     */
+    public void put(long id, String... fieldValues) {
+        remove(id);
+
+        String[] lower = new String[fieldCount];
+        for (int f = 0; f < fieldCount; f++) {
+            String value = f < fieldValues.length ? fieldValues[f] : null;
+            lower[f] = value == null ? "" : value.toLowerCase();
+        }
+
+        int doc = docCount++;
+        if (doc == ids.length) {
+            ids = Arrays.copyOf(ids, doc * 2);
+            values = Arrays.copyOf(values, doc * 2);
+        }
+        ids[doc] = id;
+        values[doc] = lower;
+        docById.put(id, doc);
+
+        for (int f = 0; f < fieldCount; f++) {
+            for (long gram : grams(f, lower[f])) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(doc);
+            }
+        }
+    }
+
+    /**
+     * Removes a record (no-op if it is not indexed).
+     */
+    public void remove(long id) {
+        Integer doc = docById.remove(id);
+        if (doc == null) {
+            return;
+        }
+        dead.set(doc);
+        values[doc] = null;
+        deadCount++;
+        if (deadCount > 1024 && deadCount * 4 > docCount) {
+            compact();
+        }
+    }
+
+    /**
+     * @return number of live records
+     */
+    public int size() {
+        return docCount - deadCount;
+    }
+
+    /**
+     * Finds records whose fields contain the given terms (case-insensitive), ranked by
+     * exact match, then prefix match, then earliest match position, then shortest value.
+     *
+     * @param terms  one search term per field; null or blank terms match everything
+     * @param offset number of ranked results to skip
+     * @param limit  maximum number of IDs to return
+     */
+    public Page search(String[] terms, int offset, int limit) {
+        String[] lower = new String[fieldCount];
+        List<IntList> lists = new ArrayList<>();
+        for (int f = 0; f < fieldCount; f++) {
+            String term = f < terms.length ? terms[f] : null;
+            if (term == null || term.isBlank()) {
+                continue;
+            }
+            lower[f] = term.toLowerCase();
+            for (long gram : grams(f, lower[f])) {
+                IntList list = postings.get(gram);
+                if (list == null) {
+                    return new Page(0, List.of());
+                }
+                lists.add(list);
+            }
+        }
+
+        // Candidate documents: intersection of the posting lists, or every document
+        int[] candidates = null;
+        int candidateCount = docCount;
+        if (!lists.isEmpty()) {
+            lists.sort(Comparator.comparingInt(l -> l.size));
+            candidates = Arrays.copyOf(lists.get(0).values, lists.get(0).size);
+            candidateCount = candidates.length;
+            for (int i = 1; i < lists.size() && candidateCount > 0; i++) {
+                candidateCount = intersect(candidates, candidateCount, lists.get(i));
+            }
+        }
+
+        // Keep the best (offset + limit) matches in a max-heap on rank
+        int keep = offset + limit;
+        PriorityQueue<long[]> best = new PriorityQueue<>((a, b) -> Long.compare(b[0], a[0]));
+        int total = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int doc = candidates != null ? candidates[i] : i;
+            if (dead.get(doc)) {
+                continue;
+            }
+            long rank = rank(values[doc], lower);
+            if (rank < 0) {
+                continue;
+            }
+            total++;
+            if (keep > 0 && (best.size() < keep || rank < best.peek()[0])) {
+                best.add(new long[]{rank, doc});
+                if (best.size() > keep) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<long[]> ranked = new ArrayList<>(best);
+        ranked.sort(Comparator.<long[]>comparingLong(e -> e[0]).thenComparingLong(e -> e[1]));
+        List<Long> page = new ArrayList<>();
+        for (int i = offset; i < ranked.size(); i++) {
+            page.add(ids[(int) ranked.get(i)[1]]);
+        }
+        return new Page(total, page);
+    }
+
+    /**
+     * Rank of a document for the given terms (lower is better), or -1 if a term does not match.
+     */
+    private static long rank(String[] docValues, String[] terms) {
+        long rank = 0;
+        for (int f = 0; f < terms.length; f++) {
+            if (terms[f] == null) {
+                continue;
+            }
+            String value = docValues[f];
+            int at = value.indexOf(terms[f]);
+            if (at < 0) {
+                return -1;
+            }
+            int kind = value.length() == terms[f].length() ? 0 : at == 0 ? 1 : 2;
+            rank += kind * 1_000_000L + Math.min(at, 999) * 1_000L + Math.min(value.length(), 999);
+        }
+        return rank;
+    }
+
+    /**
+     * Keeps only the candidates also present in {@code list} (both sorted); returns the new count.
+     */
+    private static int intersect(int[] candidates, int count, IntList list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < list.size; i++) {
+            int doc = candidates[i];
+            while (j < list.size && list.values[j] < doc) {
+                j++;
+            }
+            if (j < list.size && list.values[j] == doc) {
+                candidates[kept++] = doc;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Distinct trigrams of a value, each tagged with its field number.
+     */
+    private static Set<Long> grams(int field, String value) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            grams.add(((long) field << 48)
+                    | ((long) value.charAt(i) << 32)
+                    | ((long) value.charAt(i + 1) << 16)
+                    | value.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    /**
+     * Re-adds every live record so document numbers and posting lists have no tombstones.
+     */
+    private void compact() {
+        long[] oldIds = Arrays.copyOf(ids, docCount);
+        String[][] oldValues = Arrays.copyOf(values, docCount);
+        int oldCount = docCount;
+
+        postings.clear();
+        docById.clear();
+        dead.clear();
+        docCount = 0;
+        deadCount = 0;
+        for (int doc = 0; doc < oldCount; doc++) {
+            if (oldValues[doc] != null) {
+                put(oldIds[doc], oldValues[doc]);
+            }
+        }
+    }
+
+    /**
+     * Growable array of document numbers, appended in increasing order.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
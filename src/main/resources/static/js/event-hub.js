@@ -0,0 +1,100 @@
+/*
+ * One multiplexed EventSource (/events/stream) shared by any number of clients.
+ * Each client subscribes to topics; the hub keeps the stream's topics equal to the union
+ * of all clients' topics and forwards every event to the clients of its topic.
+ * Runs inside the SharedWorker (event-worker.js), or in the page when SharedWorker is missing.
+ * Reconnects resume from the last event ID, so the server replays what was missed; chat messages
+ * that arrive twice (replay overlap, database catch-up) are delivered once. When too much was missed
+ * the server sends 'reload' on the topic instead, which events.js answers by reloading the page.
+ */
+self.EventHub = self.EventHub || class {
+
+    constructor() {
+        this.clients = new Map();   // client -> Set of topics
+        this.source = null;
+        this.streamId = null;
+        this.lastEventId = null;
+        this.seen = new Map();      // topic -> recently delivered chat message IDs
+    }
+
+    /** Handles a message from a client: {type: 'subscribe' | 'unsubscribe' | 'bye', topics}. */
+    handle(client, msg) {
+        if (!this.clients.has(client)) this.clients.set(client, new Set());
+        const topics = this.clients.get(client);
+        if (msg.type === 'subscribe') msg.topics.forEach(t => topics.add(t));
+        if (msg.type === 'unsubscribe') msg.topics.forEach(t => topics.delete(t));
+        if (msg.type === 'bye') this.clients.delete(client);
+        this.sync();
+    }
+
+    topics() {
+        const all = new Set();
+        this.clients.forEach(topics => topics.forEach(t => all.add(t)));
+        return [...all].sort();
+    }
+
+    /** Opens, updates or closes the stream so it carries exactly the topics in use. */
+    sync() {
+        const topics = this.topics();
+        if (topics.length === 0) {
+            if (this.source) this.source.close();
+            this.source = null;
+            this.streamId = null;
+            return;
+        }
+        if (!this.source) {
+            this.open(topics);
+        } else if (this.streamId) {
+            fetch(`/events/stream/${this.streamId}/topics`, {
+                method: 'POST',
+                headers: {'Content-Type': 'application/json'},
+                body: JSON.stringify(topics)
+            }).then(r => {
+                // Stream gone on the server (e.g. evicted): start a new one
+                if (r.status === 404) this.reopen();
+            }).catch(e => console.error(e));
+        }
+        // Otherwise the 'ready' handler sends the topics once the stream ID is known
+    }
+
+    open(topics) {
+        let url = '/events/stream?topics=' + encodeURIComponent(topics.join(','));
+        // A new EventSource does not send Last-Event-ID itself
+        if (this.lastEventId) url += '&lastEventId=' + encodeURIComponent(this.lastEventId);
+        const source = new EventSource(url);
+        this.source = source;
+        source.addEventListener('ready', e => {
+            // Also fired after every automatic reconnect: bring the new stream up to date
+            this.streamId = JSON.parse(e.data).stream;
+            if (this.topics().join(',') !== topics.join(',')) this.sync();
+        });
+        ['chat', 'conversation', 'unread', 'dashboard', 'reload'].forEach(name =>
+            source.addEventListener(name, e => {
+                if (e.lastEventId) this.lastEventId = e.lastEventId;
+                this.deliver(name, JSON.parse(e.data));
+            }));
+    }
+
+    reopen() {
+        if (this.source) this.source.close();
+        this.source = null;
+        this.streamId = null;
+        this.sync();
+    }
+
+    deliver(name, event) {
+        if (name === 'chat' && event.data.id != null && this.isDuplicate(event.topic, event.data.id)) return;
+        this.clients.forEach((topics, client) => {
+            if (topics.has(event.topic)) client.post({topic: event.topic, name, data: event.data});
+        });
+    }
+
+    isDuplicate(topic, id) {
+        if (!this.seen.has(topic)) this.seen.set(topic, new Set());
+        const ids = this.seen.get(topic);
+        if (ids.has(id)) return true;
+        ids.add(id);
+        if (ids.size > 500) ids.delete(ids.values().next().value);
+        return false;
+    }
+};
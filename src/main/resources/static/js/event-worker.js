@@ -0,0 +1,13 @@
+/*
+ * SharedWorker holding the single event stream of this browser for all tabs and frames.
+ */
+importScripts('/js/event-hub.js');
+
+const hub = new EventHub();
+
+onconnect = e => {
+    const port = e.ports[0];
+    const client = {post: msg => port.postMessage(msg)};
+    port.onmessage = ev => hub.handle(client, ev.data);
+    port.start();
+};
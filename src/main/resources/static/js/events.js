@@ -0,0 +1,56 @@
+/*
+ * Page API for live events:
+ *   AppEvents.on('chat:42', (name, data) => ...);
+ *   AppEvents.off('chat:42', handler);
+ * All tabs share one connection through a SharedWorker; without SharedWorker the page
+ * runs the hub itself (requires event-hub.js). A 'reload' event (more missed while disconnected
+ * than the server replays) reloads the page instead of reaching the handlers.
+ */
+(function () {
+    if (window.AppEvents) return;
+
+    const handlers = new Map();   // topic -> Set of handlers
+    const deliver = msg => {
+        if (msg.name === 'reload') {
+            if (handlers.has(msg.topic)) location.reload();
+            return;
+        }
+        (handlers.get(msg.topic) || []).forEach(h => h(msg.name, msg.data));
+    };
+    let send;
+
+    if (window.SharedWorker) {
+        const worker = new SharedWorker('/js/event-worker.js');
+        worker.port.onmessage = e => deliver(e.data);
+        worker.port.start();
+        send = msg => worker.port.postMessage(msg);
+    } else {
+        const hub = new EventHub();
+        const client = {post: deliver};
+        send = msg => hub.handle(client, msg);
+    }
+    window.addEventListener('pagehide', () => send({type: 'bye'}));
+    window.addEventListener('pageshow', e => {
+        // Restored from the back/forward cache after 'bye': subscribe again
+        if (e.persisted && handlers.size) send({type: 'subscribe', topics: [...handlers.keys()]});
+    });
+
+    window.AppEvents = {
+        on(topic, handler) {
+            if (!handlers.has(topic)) {
+                handlers.set(topic, new Set());
+                send({type: 'subscribe', topics: [topic]});
+            }
+            handlers.get(topic).add(handler);
+        },
+        off(topic, handler) {
+            const set = handlers.get(topic);
+            if (!set) return;
+            set.delete(handler);
+            if (set.size === 0) {
+                handlers.delete(topic);
+                send({type: 'unsubscribe', topics: [topic]});
+            }
+        }
+    };
+})();
@@ -0,0 +1,165 @@
+package com.example.demo;
+
+import com.example.demo.events.EventBus;
+import com.example.demo.service.ConversationListSseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application instances on one database with {@code app.events.bus=outbox}: an event
+ * published on one node reaches SSE clients of the other, including an event whose outbox row
+ * commits after rows with higher IDs.
+ * <p>
+ * Disabled by default (it starts two full applications against the configured MySQL database).
+ * Run it with {@code -Doutbox.two-node=true}.
+ */
+@EnabledIfSystemProperty(named = "outbox.two-node", matches = "true")
+class OutboxTwoNodeTest {
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+    private Socket stream;
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startNodes() throws Exception {
+        nodeA = start("node-a");
+        nodeB = start("node-b");
+        stream = openStream(Integer.parseInt(nodeB.getEnvironment().getProperty("local.server.port")));
+        // Let node B take its starting high-water mark
+        Thread.sleep(500);
+    }
+
+    @AfterEach
+    void stopNodes() throws Exception {
+        if (stream != null) {
+            stream.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void eventPublishedOnOneNodeReachesTheOther() throws Exception {
+        nodeA.getBean(EventBus.class).publish(ConversationListSseService.CHANNEL, "conversation", Map.of("marker", "from-a"));
+        assertTrue(await("from-a"), "node B delivered node A's event");
+    }
+
+    @Test
+    void rowCommittedLateBelowTheHighWaterMarkIsDelivered() throws Exception {
+        try (Connection connection = nodeA.getBean(DataSource.class).getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO event_outbox (node_id, channel, event_name, payload, created_at) VALUES (?, ?, ?, ?, ?)")) {
+                insert.setString(1, "node-x");
+                insert.setString(2, ConversationListSseService.CHANNEL);
+                insert.setString(3, "conversation");
+                insert.setString(4, "{\"marker\":\"late\"}");
+                insert.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+                insert.executeUpdate();
+            }
+
+            // A later insert commits first and moves node B's high-water mark past the open one
+            nodeA.getBean(EventBus.class).publish(ConversationListSseService.CHANNEL, "conversation", Map.of("marker", "early"));
+            assertTrue(await("early"), "node B delivered the row committed first");
+
+            connection.commit();
+        }
+        assertTrue(await("late"), "node B delivered the row committed late");
+    }
+
+    private static ConfigurableApplicationContext start(String nodeId) {
+        return new SpringApplicationBuilder(EcommerceMvcApplication.class)
+                .properties("server.port=0",
+                        "app.events.bus=outbox",
+                        "app.events.node-id=" + nodeId,
+                        "app.events.outbox.poll-ms=100")
+                .run();
+    }
+
+    /**
+     * Opens the conversation-list stream on a node as the built-in admin and collects its lines.
+     */
+    private Socket openStream(int port) throws Exception {
+        String cookie = login(port);
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress("127.0.0.1", port));
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /events/stream?topics=" + ConversationListSseService.CHANNEL + " HTTP/1.1\r\n"
+                + "Host: localhost\r\nAccept: text/event-stream\r\nCookie: " + cookie + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    received.add(line);
+                }
+            } catch (Exception ex) {
+                // Closed at the end of the test
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+        return socket;
+    }
+
+    private boolean await(String marker) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (received.stream().anyMatch(line -> line.contains("\"" + marker + "\""))) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    private static String login(int port) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/login").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setInstanceFollowRedirects(false);
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write("username=admin&password=admin123".getBytes(StandardCharsets.US_ASCII));
+        }
+        connection.getResponseCode();
+        String cookie = null;
+        for (String header : connection.getHeaderFields().getOrDefault("Set-Cookie", List.of())) {
+            if (header.startsWith("JSESSIONID=")) {
+                cookie = header.substring(0, header.indexOf(';'));
+            }
+        }
+        assertNotNull(cookie, "admin login");
+        return cookie;
+    }
+}
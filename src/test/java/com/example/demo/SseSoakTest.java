@@ -0,0 +1,229 @@
+package com.example.demo;
+
+import com.example.demo.model.Account;
+import com.example.demo.model.Conversation;
+import com.example.demo.repository.AccountRepository;
+import com.example.demo.repository.ConversationRepository;
+import com.example.demo.service.ChatSseService;
+import com.example.demo.service.ConversationListSseService;
+import com.example.demo.service.SseDispatcher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Soak test of the multiplexed SSE stream: opens many idle streams and reports the heap used
+ * per connection and the delivery latency of a broadcast.
+ * <p>
+ * Each stream also joins the chat topic of one of {@value #CHAT_CONVERSATIONS} conversations,
+ * so opening it looks the conversation up in the database like a chat viewer does. Open streams
+ * must not keep the pooled connection used for that (the storefront pool has 10).
+ * <p>
+ * Disabled by default. Run it with
+ * {@code -Dsse.soak=true [-Dsse.soak.connections=100000] [-Dsse.soak.messages=20]}
+ * after raising the open-file limit ({@code ulimit -n}). Clients bind to several loopback
+ * addresses (127.0.0.x) so the local port range is not exhausted. Client and server share
+ * this JVM, so the heap figure also includes the client-side sockets.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "sse.soak", matches = "true")
+class SseSoakTest {
+
+    private static final int CONNECTIONS_PER_ADDRESS = 20_000;
+    private static final int CHAT_CONVERSATIONS = 100;
+    private static final byte[] SENT_AT = "\"sentAt\":".getBytes(StandardCharsets.US_ASCII);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SseDispatcher dispatcher;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Test
+    void holdsManyIdleStreams() throws Exception {
+        int connections = Integer.getInteger("sse.soak.connections", 100_000);
+        int messages = Integer.getInteger("sse.soak.messages", 20);
+        String cookie = login();
+        Account owner = new Account();
+        owner.setUsername("soak-" + System.nanoTime());
+        owner.setEmail(owner.getUsername() + "@example.com");
+        owner.setRole("ROLE_USER");
+        owner = accountRepository.save(owner);
+        List<Conversation> chats = new ArrayList<>();
+        for (int i = 0; i < CHAT_CONVERSATIONS; i++) {
+            Conversation conversation = new Conversation();
+            conversation.setUser(owner);
+            conversation.setLastUpdated(new Date());
+            chats.add(conversationRepository.save(conversation));
+        }
+
+        long baseline = usedHeap();
+        Selector selector = Selector.open();
+        List<SocketChannel> clients = new ArrayList<>(connections);
+        long openStart = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            SocketChannel client = SocketChannel.open();
+            client.bind(new InetSocketAddress("127.0.0." + (1 + i / CONNECTIONS_PER_ADDRESS), 0));
+            client.connect(new InetSocketAddress("127.0.0.1", port));
+            String topics = ConversationListSseService.CHANNEL + ","
+                    + ChatSseService.channel(chats.get(i % CHAT_CONVERSATIONS).getId());
+            client.write(ByteBuffer.wrap(("GET /events/stream?topics=" + topics + " HTTP/1.1\r\n"
+                    + "Host: localhost\r\nAccept: text/event-stream\r\nCookie: " + cookie + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII)));
+            client.configureBlocking(false);
+            client.register(selector, SelectionKey.OP_READ);
+            clients.add(client);
+        }
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (streams() < connections && System.currentTimeMillis() < deadline) {
+            drain(selector, null);
+        }
+        assertEquals(connections, streams(), "streams opened");
+        System.out.printf("✅ Opened %d streams in %d ms%n", connections, (System.nanoTime() - openStart) / 1_000_000);
+
+        long perConnection = (usedHeap() - baseline) / connections;
+        System.out.printf("✅ Heap per connection: %d bytes%n", perConnection);
+
+        long[] latencies = new long[connections * messages];
+        int[] received = {0};
+        for (int m = 0; m < messages; m++) {
+            int expected = (m + 1) * connections;
+            dispatcher.publish(ConversationListSseService.CHANNEL, "conversation", Map.of("sentAt", System.nanoTime()));
+            deadline = System.currentTimeMillis() + 30_000;
+            while (received[0] < expected && System.currentTimeMillis() < deadline) {
+                drain(selector, sample -> {
+                    if (received[0] < latencies.length) {
+                        latencies[received[0]++] = sample;
+                    }
+                });
+            }
+        }
+        long[] sorted = Arrays.copyOf(latencies, received[0]);
+        Arrays.sort(sorted);
+        System.out.printf("✅ Delivered %d of %d events: p50=%.1f ms p99=%.1f ms max=%.1f ms%n",
+                sorted.length, latencies.length,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0));
+
+        for (SocketChannel client : clients) {
+            client.close();
+        }
+        selector.close();
+        conversationRepository.deleteAll(chats);
+        accountRepository.delete(owner);
+        assertEquals(latencies.length, sorted.length, "events delivered");
+    }
+
+    /**
+     * Logs in as the built-in admin and returns the session cookie.
+     */
+    private String login() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/login").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setInstanceFollowRedirects(false);
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write("username=admin&password=admin123".getBytes(StandardCharsets.US_ASCII));
+        }
+        connection.getResponseCode();
+        String cookie = null;
+        for (String header : connection.getHeaderFields().getOrDefault("Set-Cookie", List.of())) {
+            if (header.startsWith("JSESSIONID=")) {
+                cookie = header.substring(0, header.indexOf(';'));
+            }
+        }
+        assertNotNull(cookie, "admin login");
+        return cookie;
+    }
+
+    /**
+     * Reads what is available on every stream and reports the latency of each received event.
+     */
+    private static void drain(Selector selector, LongConsumer latency) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        if (selector.select(100) == 0) {
+            return;
+        }
+        for (SelectionKey key : selector.selectedKeys()) {
+            buffer.clear();
+            int read = ((SocketChannel) key.channel()).read(buffer);
+            if (read <= 0 || latency == null) {
+                continue;
+            }
+            long now = System.nanoTime();
+            byte[] bytes = buffer.array();
+            for (int i = indexOf(bytes, read, 0); i >= 0; i = indexOf(bytes, read, i)) {
+                long sentAt = 0;
+                while (i < read && Character.isDigit(bytes[i])) {
+                    sentAt = sentAt * 10 + (bytes[i++] - '0');
+                }
+                latency.accept(now - sentAt);
+            }
+        }
+        selector.selectedKeys().clear();
+    }
+
+    /**
+     * @return the position right after the next {@code "sentAt":} from {@code from}, or -1
+     */
+    private static int indexOf(byte[] bytes, int length, int from) {
+        outer:
+        for (int i = from; i <= length - SENT_AT.length; i++) {
+            for (int j = 0; j < SENT_AT.length; j++) {
+                if (bytes[i + j] != SENT_AT[j]) {
+                    continue outer;
+                }
+            }
+            return i + SENT_AT.length;
+        }
+        return -1;
+    }
+
+    private long streams() {
+        return (Long) dispatcher.snapshot().get("multiplexedStreams");
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.demo;
+
+import com.example.demo.service.ConversationListSseService;
+import com.example.demo.service.SseDispatcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clients that open an SSE stream and then never read must not hold up delivery to the others:
+ * their blocked sends take extra dispatch threads and they are evicted after the stall time.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.sse.dispatch-threads=1",
+        "app.sse.max-dispatch-threads=16",
+        "app.sse.queue-capacity=1000",
+        "app.sse.stall-ms=1000",
+        "app.sse.heartbeat-ms=250"
+})
+class SseStalledClientTest {
+
+    private static final int STALLED_CLIENTS = 4;
+    private static final int LARGE_EVENTS = 40;
+    private static final String MARKER = "still-delivered";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SseDispatcher dispatcher;
+
+    @Test
+    void clientsThatNeverReadAreEvictedWithoutDelayingOthers() throws Exception {
+        String cookie = login();
+        List<Socket> stalled = new ArrayList<>();
+        for (int i = 0; i < STALLED_CLIENTS; i++) {
+            Socket socket = new Socket();
+            socket.setReceiveBufferSize(1024);
+            stalled.add(open(socket, cookie));
+        }
+        Socket reader = open(new Socket(), cookie);
+        CountDownLatch delivered = new CountDownLatch(1);
+        Thread readerThread = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(reader.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.contains(MARKER)) {
+                        delivered.countDown();
+                    }
+                }
+            } catch (Exception ex) {
+                // Closed at the end of the test
+            }
+        });
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (stat("multiplexedStreams") < STALLED_CLIENTS + 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(STALLED_CLIENTS + 1, stat("multiplexedStreams"), "streams opened");
+
+        // Far more than the socket buffers hold: every send to a stalled client ends up blocked
+        String large = "x".repeat(512 * 1024);
+        for (int i = 0; i < LARGE_EVENTS; i++) {
+            dispatcher.publish(ConversationListSseService.CHANNEL, "conversation", Map.of("padding", large));
+        }
+        dispatcher.publish(ConversationListSseService.CHANNEL, "conversation", Map.of("marker", MARKER));
+
+        assertTrue(delivered.await(15, TimeUnit.SECONDS), "reading client received the last event");
+        deadline = System.currentTimeMillis() + 15_000;
+        while (stat("evictedSlow") < STALLED_CLIENTS && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(stat("evictedSlow") >= STALLED_CLIENTS, "stalled clients evicted");
+
+        for (Socket socket : stalled) {
+            socket.close();
+        }
+        reader.close();
+    }
+
+    /**
+     * Connects and requests the multiplexed stream of the conversation list.
+     */
+    private Socket open(Socket socket, String cookie) throws Exception {
+        socket.connect(new InetSocketAddress("127.0.0.1", port));
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /events/stream?topics=" + ConversationListSseService.CHANNEL + " HTTP/1.1\r\n"
+                + "Host: localhost\r\nAccept: text/event-stream\r\nCookie: " + cookie + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+
+    /**
+     * Logs in as the built-in admin and returns the session cookie.
+     */
+    private String login() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/login").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setInstanceFollowRedirects(false);
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write("username=admin&password=admin123".getBytes(StandardCharsets.US_ASCII));
+        }
+        connection.getResponseCode();
+        String cookie = null;
+        for (String header : connection.getHeaderFields().getOrDefault("Set-Cookie", List.of())) {
+            if (header.startsWith("JSESSIONID=")) {
+                cookie = header.substring(0, header.indexOf(';'));
+            }
+        }
+        assertNotNull(cookie, "admin login");
+        return cookie;
+    }
+
+    private long stat(String name) {
+        return (Long) dispatcher.snapshot().get(name);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Account;
+import com.example.demo.model.Conversation;
+import com.example.demo.model.MessageEntry;
+import com.example.demo.repository.AccountRepository;
+import com.example.demo.repository.ConversationRepository;
+import com.example.demo.service.ChatMessageWriter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A request that reads through a read-only repository call (routed to the replica) and then
+ * writes: the write must reach the primary, not the replica connection taken for the read.
+ * Runs the whole application on the {@code replica-local} profile (H2).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.datasource.replica.local-sync-ms=600000",
+        "app.datasource.replica.max-lag-ms=60000",
+        "app.datasource.replica.sticky-ms=0"
+})
+@ActiveProfiles("replica-local")
+class ReplicaRequestTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ChatMessageWriter chatMessageWriter;
+
+    @Autowired
+    private LocalReplicaSync localReplicaSync;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primary;
+
+    @Test
+    void writeAfterAReplicaReadInOneRequestReachesThePrimary() throws Exception {
+        Account user = new Account();
+        user.setUsername("replica-test-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setRole("ROLE_USER");
+        user.setEnabled(true);
+        user = accountRepository.save(user);
+
+        Conversation conversation = new Conversation();
+        conversation.setUser(user);
+        conversation.setLastUpdated(new Date());
+        conversation = conversationRepository.save(conversation);
+
+        MessageEntry message = new MessageEntry();
+        message.setConversation(conversation);
+        message.setSender(user);
+        message.setContent("hello");
+        message.setSentAt(new Date());
+        message = chatMessageWriter.write(message).message();
+
+        // Replicate, then let the monitor see the fresh heartbeat
+        lagMonitor.check();
+        localReplicaSync.sync();
+        lagMonitor.check();
+        assertTrue(lagMonitor.isReplicaUsable(), "replica in use");
+
+        // The view reads the conversation (read-only, replica), then moves the admin read watermark
+        HttpURLConnection connection = (HttpURLConnection) new URL(
+                "http://localhost:" + port + "/conversation/" + conversation.getId()).openConnection();
+        connection.setRequestProperty("Cookie", login());
+        assertEquals(200, connection.getResponseCode());
+
+        Map<String, Object> row = new JdbcTemplate(primary).queryForMap(
+                "SELECT admin_read_message_id, unread_by_admin FROM conversation WHERE id = ?", conversation.getId());
+        assertEquals(message.getId(), ((Number) row.get("admin_read_message_id")).longValue(), "watermark on the primary");
+        assertEquals(0, ((Number) row.get("unread_by_admin")).intValue(), "unread count on the primary");
+    }
+
+    /**
+     * Logs in as the built-in admin and returns the session cookie.
+     */
+    private String login() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/login").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setInstanceFollowRedirects(false);
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write("username=admin&password=admin123".getBytes(StandardCharsets.US_ASCII));
+        }
+        connection.getResponseCode();
+        String cookie = null;
+        for (String header : connection.getHeaderFields().getOrDefault("Set-Cookie", List.of())) {
+            if (header.startsWith("JSESSIONID=")) {
+                cookie = header.substring(0, header.indexOf(';'));
+            }
+        }
+        assertNotNull(cookie, "admin login");
+        return cookie;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing between two databases (embedded H2, each knowing its own name): read-only
+ * transactions go to the replica unless it lags or the session has just written.
+ */
+class ReplicaRoutingTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("routing_primary");
+        replica = h2("routing_replica");
+        new JdbcTemplate(primary).execute("CREATE TABLE node (name VARCHAR(16)); INSERT INTO node VALUES ('primary')");
+        new JdbcTemplate(replica).execute("CREATE TABLE node (name VARCHAR(16)); INSERT INTO node VALUES ('replica')");
+
+        lagMonitor = new ReplicaLagMonitor(primary, replica, 3000);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+        ReadYourWrites.pinToPrimary(false);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaOnceItIsCaughtUp() {
+        lagMonitor.check();
+        assertEquals("primary", node(readOnly), "replica without heartbeat");
+
+        replicateHeartbeat();
+        assertEquals("replica", node(readOnly));
+        assertEquals("primary", node(readWrite));
+
+        lagMonitor.setSuspended(true);
+        assertEquals("primary", node(readOnly), "suspended replica");
+        lagMonitor.setSuspended(false);
+        assertEquals("replica", node(readOnly));
+    }
+
+    @Test
+    void sessionReadsItsOwnWritesFromThePrimary() throws Exception {
+        replicateHeartbeat();
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(200);
+        MockHttpSession session = new MockHttpSession();
+
+        assertEquals("replica", inRequest(interceptor, "GET", session));
+        assertEquals("primary", inRequest(interceptor, "POST", session));
+        assertEquals("primary", inRequest(interceptor, "GET", session), "right after the write");
+        Thread.sleep(300);
+        assertEquals("replica", inRequest(interceptor, "GET", session), "after the sticky window");
+    }
+
+    @Test
+    void pinDoesNotLeakToTheNextRequestOnTheThread() {
+        replicateHeartbeat();
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(10_000);
+        MockHttpSession session = new MockHttpSession();
+        MockHttpServletRequest write = new MockHttpServletRequest("POST", "/");
+        write.setSession(session);
+
+        // Async handler (e.g. an SSE stream): afterCompletion does not run on this thread
+        interceptor.preHandle(write, new MockHttpServletResponse(), new Object());
+        interceptor.afterConcurrentHandlingStarted(write, new MockHttpServletResponse(), new Object());
+        assertEquals("replica", node(readOnly), "after the async start");
+
+        // Pinned by a request that never completed here, then a request without a session
+        ReadYourWrites.pinToPrimary(true);
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse(), new Object());
+        assertEquals("replica", node(readOnly), "request without a session");
+    }
+
+    /**
+     * Runs a read-only transaction the way a request handler would, between the interceptor's callbacks.
+     */
+    private String inRequest(ReadYourWritesInterceptor interceptor, String method, MockHttpSession session) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/");
+        request.setSession(session);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+        try {
+            return node(readOnly);
+        } finally {
+            interceptor.afterCompletion(request, response, new Object(), null);
+        }
+    }
+
+    /**
+     * Copies the primary's heartbeat to the replica, as replication would, and lets the monitor see it.
+     */
+    private void replicateHeartbeat() {
+        lagMonitor.check();
+        Long beat = new JdbcTemplate(primary).queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        replicaJdbc.update("MERGE INTO replica_heartbeat KEY (id) VALUES (1, ?)", beat);
+        lagMonitor.check();
+    }
+
+    private String node(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.Account;
+import com.example.demo.model.Conversation;
+import com.example.demo.model.MessageEntry;
+import com.example.demo.repository.AccountRepository;
+import com.example.demo.repository.ConversationRepository;
+import com.example.demo.repository.MessageEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Posting to {@code /conversation/{id}/send} inserts a new message: the path variable must not
+ * be bound to the message's ID, which would overwrite the message having the conversation's ID.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ConversationSendMessageTest {
+
+    private static final String PASSWORD = "secret123";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private MessageEntryRepository messageEntryRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final List<Conversation> created = new ArrayList<>();
+    private Account user;
+
+    @AfterEach
+    void cleanUp() {
+        for (Conversation conversation : created) {
+            messageEntryRepository.deleteAll(messageEntryRepository.findByConversationOrderBySentAtAsc(conversation));
+            conversationRepository.delete(conversation);
+        }
+        if (user != null) {
+            accountRepository.delete(user);
+        }
+    }
+
+    @Test
+    void sendInsertsANewMessage() throws Exception {
+        user = new Account();
+        user.setUsername("send-test-" + System.nanoTime());
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPasswordHash(passwordEncoder.encode(PASSWORD));
+        user.setRole("ROLE_USER");
+        user.setEnabled(true);
+        user.setCreatedAt(new Date());
+        user = accountRepository.save(user);
+
+        // An earlier message, so that a message with the conversation's ID is likely to exist
+        Conversation other = conversation();
+        MessageEntry earlier = new MessageEntry();
+        earlier.setConversation(other);
+        earlier.setSender(user);
+        earlier.setContent("earlier message");
+        earlier.setSentAt(new Date());
+        messageEntryRepository.save(earlier);
+
+        Conversation conversation = conversation();
+        Optional<MessageEntry> sameId = messageEntryRepository.findById(conversation.getId());
+        String sameIdContent = sameId.map(MessageEntry::getContent).orElse(null);
+
+        String cookie = login();
+        HttpURLConnection connection = (HttpURLConnection) new URL(
+                "http://localhost:" + port + "/conversation/" + conversation.getId() + "/send").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setInstanceFollowRedirects(false);
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        connection.setRequestProperty("Cookie", cookie);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(("content=" + URLEncoder.encode("hello there", StandardCharsets.UTF_8))
+                    .getBytes(StandardCharsets.US_ASCII));
+        }
+        assertEquals(302, connection.getResponseCode());
+
+        List<MessageEntry> messages = messageEntryRepository.findByConversationOrderBySentAtAsc(conversation);
+        assertEquals(1, messages.size(), "one new message in the conversation");
+        assertEquals("hello there", messages.get(0).getContent());
+        assertNotEquals(conversation.getId(), messages.get(0).getId(), "ID not taken from the path");
+        if (sameId.isPresent()) {
+            assertEquals(sameIdContent, messageEntryRepository.findById(conversation.getId())
+                    .map(MessageEntry::getContent).orElse(null), "message with the conversation's ID unchanged");
+        }
+    }
+
+    private Conversation conversation() {
+        Conversation conversation = new Conversation();
+        conversation.setUser(user);
+        conversation.setLastUpdated(new Date());
+        conversation = conversationRepository.save(conversation);
+        created.add(conversation);
+        return conversation;
+    }
+
+    /**
+     * Logs in as the test user and returns the session cookie.
+     */
+    private String login() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/login").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setInstanceFollowRedirects(false);
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(("username=" + user.getUsername() + "&password=" + PASSWORD).getBytes(StandardCharsets.US_ASCII));
+        }
+        connection.getResponseCode();
+        String cookie = null;
+        for (String header : connection.getHeaderFields().getOrDefault("Set-Cookie", List.of())) {
+            if (header.startsWith("JSESSIONID=")) {
+                cookie = header.substring(0, header.indexOf(';'));
+            }
+        }
+        assertNotNull(cookie, "login");
+        return cookie;
+    }
+}
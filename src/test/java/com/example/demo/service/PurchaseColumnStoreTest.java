@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.PurchaseRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Column store aggregations over generated purchases, loaded through a repository stub
+ * that answers only the loader's query.
+ * <p>
+ * The timing harness is disabled by default. Run it with
+ * {@code -Dcolumnstore.bench=true [-Dcolumnstore.bench.rows=5000000]}; it prints load and
+ * query times, to compare against the rollup queries on the same data.
+ */
+class PurchaseColumnStoreTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 1);
+    private static final int DAYS = 3 * 365;
+    private static final long[] STATUS_IDS = {1, 2, 3, 300};
+
+    @Test
+    void statusIdsAbove127AreFilteredExactly() {
+        int rows = 10_000;
+        PurchaseColumnStore store = load(rows);
+
+        long[] expectedCents = new long[STATUS_IDS.length];
+        for (long id = 1; id <= rows; id++) {
+            expectedCents[statusIndex(id)] += cents(id);
+        }
+        for (int s = 0; s < STATUS_IDS.length; s++) {
+            long cents = 0;
+            for (Object[] row : store.monthlyRevenue((int) STATUS_IDS[s])) {
+                cents += ((BigDecimal) row[1]).movePointRight(2).longValueExact();
+            }
+            assertEquals(expectedCents[s], cents, "status " + STATUS_IDS[s]);
+        }
+        assertTrue(store.monthlyRevenue(PurchaseColumnStore.NO_STATUS).isEmpty());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "columnstore.bench", matches = "true")
+    void timesLoadAndAggregations() {
+        int rows = Integer.getInteger("columnstore.bench.rows", 5_000_000);
+
+        long start = System.nanoTime();
+        PurchaseColumnStore store = load(rows);
+        System.out.printf("Loaded %,d purchases in %d ms%n", store.size(), millisSince(start));
+
+        LocalDate lastDay = FIRST_DAY.plusDays(DAYS - 1);
+        for (int round = 0; round < 5; round++) {
+            start = System.nanoTime();
+            store.dailyRevenue(lastDay.minusDays(29), lastDay, PurchaseColumnStore.ANY_STATUS);
+            long last30Days = millisSince(start);
+
+            start = System.nanoTime();
+            store.monthlyRevenue(PurchaseColumnStore.ANY_STATUS);
+            long allMonths = millisSince(start);
+
+            start = System.nanoTime();
+            store.monthlyRevenue((int) STATUS_IDS[1]);
+            long allMonthsByStatus = millisSince(start);
+
+            System.out.printf("Round %d: last 30 days %d ms, all months %d ms, all months of one status %d ms%n",
+                    round, last30Days, allMonths, allMonthsByStatus);
+        }
+    }
+
+    /**
+     * Loads a store with purchases 1..rows: one per day in turn, totals from 0.00 to 99.99
+     * and the statuses of {@link #STATUS_IDS} in turn.
+     */
+    private static PurchaseColumnStore load(int rows) {
+        PurchaseRepository repository = (PurchaseRepository) Proxy.newProxyInstance(
+                PurchaseRepository.class.getClassLoader(),
+                new Class<?>[]{PurchaseRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findColumnsAfter")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    long afterId = (Long) args[0];
+                    int pageSize = ((Pageable) args[1]).getPageSize();
+                    List<Object[]> batch = new ArrayList<>(pageSize);
+                    for (long id = afterId + 1; id <= rows && batch.size() < pageSize; id++) {
+                        batch.add(new Object[]{
+                                id,
+                                LocalDateTime.of(FIRST_DAY.plusDays(id % DAYS), LocalTime.NOON),
+                                BigDecimal.valueOf(cents(id), 2),
+                                STATUS_IDS[statusIndex(id)]});
+                    }
+                    return batch;
+                });
+        PurchaseColumnStore store = new PurchaseColumnStore(repository);
+        store.load();
+        return store;
+    }
+
+    private static long cents(long id) {
+        return id % 10_000;
+    }
+
+    private static int statusIndex(long id) {
+        return (int) (id % STATUS_IDS.length);
+    }
+
+    private static long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
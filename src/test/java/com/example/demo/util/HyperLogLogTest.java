@@ -0,0 +1,92 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HyperLogLog at the default precision of 11: estimates stay within the expected standard
+ * error of about 2.3 %, and merging gives the sketch of the union.
+ */
+class HyperLogLogTest {
+
+    /** 1.04 / sqrt(2^11). */
+    private static final double STANDARD_ERROR = 0.023;
+
+    @Test
+    void estimatesAreWithinTheStandardError() {
+        int sketches = 20;
+        int distinct = 50_000;
+        double squaredErrors = 0;
+        for (int s = 0; s < sketches; s++) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (long v = 0; v < distinct; v++) {
+                sketch.add(s * 1_000_000L + v);
+            }
+            double error = (sketch.estimate() - distinct) / (double) distinct;
+            assertTrue(Math.abs(error) < 3 * STANDARD_ERROR, "sketch " + s + " off by " + error);
+            squaredErrors += error * error;
+        }
+        double rmsError = Math.sqrt(squaredErrors / sketches);
+        assertTrue(rmsError < 1.25 * STANDARD_ERROR, "RMS error " + rmsError);
+    }
+
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertEquals(0, sketch.estimate());
+        for (long v = 1; v <= 100; v++) {
+            sketch.add(v);
+        }
+        assertEquals(100, sketch.estimate(), 2);
+    }
+
+    @Test
+    void duplicatesDoNotChangeTheSketch() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long v = 0; v < 1000; v++) {
+            sketch.add(v);
+        }
+        for (long v = 0; v < 1000; v++) {
+            assertFalse(sketch.add(v), "value " + v + " added twice");
+        }
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog both = new HyperLogLog();
+        for (long v = 0; v < 60_000; v++) {
+            first.add(v);
+            both.add(v);
+        }
+        for (long v = 40_000; v < 100_000; v++) {
+            second.add(v);
+            both.add(v);
+        }
+
+        first.merge(second);
+        assertArrayEquals(both.toBytes(), first.toBytes(), "merge equals the sketch of the union");
+        assertEquals(100_000, first.estimate(), 3 * STANDARD_ERROR * 100_000);
+
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new HyperLogLog(12)));
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long v = 0; v < 5000; v++) {
+            sketch.add(v * 7);
+        }
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+        assertEquals(sketch.estimate(), restored.estimate());
+        assertArrayEquals(sketch.toBytes(), restored.toBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{11, 0, 0}));
+    }
+}
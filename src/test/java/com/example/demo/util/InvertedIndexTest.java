@@ -0,0 +1,103 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inverted index over chat messages grouped by conversation: word-prefix candidates, phrase
+ * confirmation, group removal and compaction.
+ */
+class InvertedIndexTest {
+
+    @Test
+    void findsCandidatesAndConfirmsThePhrase() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, 10, "The quick brown fox");
+        index.put(2, 10, "brown shoes, quick delivery");
+        index.put(3, 20, "Quickly browsing");
+
+        assertEquals(Map.of(1L, 10L, 2L, 10L, 3L, 20L), index.search("QUICK BRO", 10), "every word a word prefix");
+        assertEquals(List.of(3L, 2L, 1L), List.copyOf(index.search("quick", 10).keySet()), "newest first");
+        assertEquals(List.of(3L), List.copyOf(index.search("quick", 1).keySet()), "limit");
+        assertTrue(index.search("uick", 10).isEmpty(), "not a word prefix");
+
+        InvertedIndex.Snippet snippet = InvertedIndex.match("The quick brown fox", "QUICK BRO");
+        assertEquals(new InvertedIndex.Snippet("The ", "quick bro", "wn fox"), snippet);
+        assertNull(InvertedIndex.match("brown shoes, quick delivery", "quick bro"), "words in another order");
+        assertNull(InvertedIndex.match("The quick brown fox", "  "));
+    }
+
+    @Test
+    void searchCanBeRestrictedToGroupsAndCappedPerGroup() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, 10, "order shipped");
+        for (long id = 2; id <= 50; id++) {
+            index.put(id, 20, "order question " + id);
+        }
+        index.put(51, 30, "order cancelled");
+
+        assertEquals(Map.of(1L, 10L), index.search("order", 5, Integer.MAX_VALUE, Set.of(10L)), "own groups only");
+        assertEquals(List.of(51L, 50L, 49L, 1L),
+                List.copyOf(index.search("order", 100, 2, null).keySet()), "two per group, newest first");
+        assertTrue(index.search("order", 10, 2, Set.of()).isEmpty());
+    }
+
+    @Test
+    void snippetIsCutAroundTheMatch() {
+        String text = "a".repeat(100) + " needle " + "b".repeat(100);
+        InvertedIndex.Snippet snippet = InvertedIndex.match(text, "needle");
+        assertEquals("needle", snippet.match());
+        assertEquals("…" + "a".repeat(39) + " ", snippet.before());
+        assertEquals(" " + "b".repeat(39) + "…", snippet.after());
+    }
+
+    @Test
+    void removeGroupDropsOnlyThatGroup() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, 10, "hello there");
+        index.put(2, 10, "hello again");
+        index.put(3, 20, "hello world");
+        // Moved to another group: removing its old group must keep it
+        index.put(2, 20, "hello again");
+
+        index.removeGroup(10);
+        assertEquals(Map.of(2L, 20L, 3L, 20L), index.search("hello", 10));
+        assertEquals(2, index.size());
+
+        index.remove(3);
+        index.removeGroup(99);
+        assertEquals(Map.of(2L, 20L), index.search("hello", 10));
+    }
+
+    @Test
+    void searchesStayCorrectAcrossCompaction() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 0; id < 2000; id++) {
+            index.put(id, id % 4, "message number " + id + " about order");
+        }
+        // Enough stale entries to trigger a compaction
+        for (long id = 0; id < 1500; id++) {
+            index.remove(id);
+        }
+        assertEquals(500, index.size());
+
+        Map<Long, Long> found = index.search("about order", 2000);
+        assertEquals(500, found.size());
+        assertTrue(found.keySet().stream().allMatch(id -> id >= 1500));
+        assertEquals(Map.of(1600L, 0L), index.search("1600", 10));
+        assertTrue(index.search("1200", 10).isEmpty(), "removed");
+
+        index.put(1600, 0, "refund requested");
+        assertEquals(Map.of(1600L, 0L), index.search("refund", 10));
+        index.removeGroup(0);
+        assertEquals(375, index.size());
+        assertTrue(index.search("refund", 10).isEmpty());
+    }
+}
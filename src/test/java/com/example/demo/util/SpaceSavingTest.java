@@ -0,0 +1,111 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Space-Saving over a skewed (Zipf-like) stream: the heavy hitters are tracked and ranked
+ * correctly and every count stays within its error bound.
+ */
+class SpaceSavingTest {
+
+    private static final int CAPACITY = 50;
+
+    @Test
+    void tracksTheHeavyHittersOfASkewedStream() {
+        SpaceSaving summary = new SpaceSaving(CAPACITY);
+        Map<Long, Long> exact = new HashMap<>();
+        long total = feed(summary, exact, new Random(42), 200_000);
+
+        for (Map.Entry<Long, Long> e : exact.entrySet()) {
+            if (e.getValue() > total / CAPACITY) {
+                assertTrue(summary.contains(e.getKey()), "heavy hitter " + e.getKey() + " tracked");
+            }
+        }
+        List<SpaceSaving.Counter> top = summary.top();
+        assertEquals(CAPACITY, top.size());
+        for (int rank = 0; rank < 5; rank++) {
+            assertEquals(rank + 1L, top.get(rank).getKey(), "rank " + rank);
+        }
+        assertWithinErrorBound(summary, exact);
+    }
+
+    @Test
+    void mergedSummaryKeepsTheErrorBound() {
+        SpaceSaving first = new SpaceSaving(CAPACITY);
+        SpaceSaving second = new SpaceSaving(CAPACITY);
+        Map<Long, Long> exact = new HashMap<>();
+        long total = feed(first, exact, new Random(1), 100_000) + feed(second, exact, new Random(2), 100_000);
+
+        SpaceSaving merged = new SpaceSaving(CAPACITY);
+        merged.merge(first);
+        merged.merge(second);
+
+        assertEquals(1L, merged.top().get(0).getKey());
+        for (Map.Entry<Long, Long> e : exact.entrySet()) {
+            if (e.getValue() > 2 * total / CAPACITY) {
+                assertTrue(merged.contains(e.getKey()), "heavy hitter " + e.getKey() + " tracked");
+            }
+        }
+        assertWithinErrorBound(merged, exact);
+    }
+
+    @Test
+    void offerReportsTheReplacedKey() {
+        SpaceSaving summary = new SpaceSaving(2);
+        assertNull(summary.offer(1, 5, 500));
+        assertNull(summary.offer(2, 1, 100));
+        assertNull(summary.offer(1, 1, 100), "already tracked");
+
+        assertEquals(2L, summary.offer(3, 1, 300), "smallest counter replaced");
+        SpaceSaving.Counter newcomer = summary.top().get(1);
+        assertEquals(3L, newcomer.getKey());
+        assertEquals(2, newcomer.getCount());
+        assertEquals(1, newcomer.getError());
+        assertEquals(400, newcomer.getSecondary());
+
+        summary.remove(1);
+        assertFalse(summary.contains(1));
+        assertTrue(summary.contains(3));
+    }
+
+    /**
+     * Offers {@code n} items with key k drawn with probability proportional to 1 / k^1.2
+     * (keys 1..10000), one unit and 100 cents each. Returns the number of units offered.
+     */
+    private static long feed(SpaceSaving summary, Map<Long, Long> exact, Random random, int n) {
+        int keys = 10_000;
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int k = 0; k < keys; k++) {
+            sum += 1.0 / Math.pow(k + 1, 1.2);
+            cumulative[k] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            int at = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            long key = (at >= 0 ? at : -at - 1) + 1L;
+            summary.offer(key, 1, 100);
+            exact.merge(key, 1L, Long::sum);
+        }
+        return n;
+    }
+
+    private static void assertWithinErrorBound(SpaceSaving summary, Map<Long, Long> exact) {
+        for (SpaceSaving.Counter c : summary.top()) {
+            long actual = exact.getOrDefault(c.getKey(), 0L);
+            assertTrue(c.getCount() >= actual, "count of " + c.getKey() + " not underestimated");
+            assertTrue(c.getCount() - c.getError() <= actual, "error of " + c.getKey() + " bounds the overestimate");
+            assertEquals(c.getCount() * 100, c.getSecondary(), "secondary weight follows the count");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Trigram index over two fields (username, email): ranking, replaced and removed records,
+ * and compaction.
+ */
+class TrigramIndexTest {
+
+    @Test
+    void ranksExactThenPrefixThenPositionThenLength() {
+        TrigramIndex index = new TrigramIndex(2);
+        index.put(1, "joanne", "j@example.com");
+        index.put(2, "annabelle", "a@example.com");
+        index.put(3, "Ann", "ann@example.com");
+        index.put(4, "anna", "b@example.com");
+        index.put(5, "bob", "b@example.com");
+        index.put(6, "mary-ann", "m@example.com");
+
+        TrigramIndex.Page page = index.search(new String[]{"ANN", null}, 0, 10);
+        assertEquals(5, page.total());
+        assertEquals(List.of(3L, 4L, 2L, 1L, 6L), page.ids());
+
+        assertEquals(List.of(4L, 2L), index.search(new String[]{"ann", null}, 1, 2).ids(), "second page");
+        assertEquals(List.of(3L), index.search(new String[]{"ann", "ann@"}, 0, 10).ids(), "both fields must match");
+        assertEquals(List.of(4L, 2L), index.search(new String[]{"na", null}, 0, 10).ids(), "short terms scan");
+        assertEquals(0, index.search(new String[]{"zzz", null}, 0, 10).total());
+    }
+
+    @Test
+    void replacedAndRemovedRecordsAreNotFound() {
+        TrigramIndex index = new TrigramIndex(2);
+        index.put(1, "alice", "alice@example.com");
+        index.put(2, "alicia", "alicia@example.com");
+
+        index.put(1, "bob", "bob@example.com");
+        assertEquals(List.of(2L), index.search(new String[]{"ali", null}, 0, 10).ids());
+        assertEquals(List.of(1L), index.search(new String[]{"bob", null}, 0, 10).ids());
+
+        index.remove(2);
+        index.remove(42);
+        assertEquals(0, index.search(new String[]{"ali", null}, 0, 10).total());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void searchesStayCorrectAcrossCompaction() {
+        TrigramIndex index = new TrigramIndex(2);
+        for (long id = 0; id < 2000; id++) {
+            index.put(id, "user" + id, "user" + id + "@example.com");
+        }
+        // Enough tombstones to trigger a compaction
+        for (long id = 0; id < 1500; id++) {
+            index.remove(id);
+        }
+        assertEquals(500, index.size());
+
+        index.put(7, "user7", "seven@example.com");
+        index.put(1999, "renamed", "renamed@example.com");
+        List<Long> expected = new ArrayList<>();
+        for (long id = 1500; id < 1999; id++) {
+            expected.add(id);
+        }
+        TrigramIndex.Page page = index.search(new String[]{"user1", null}, 0, 1000);
+        assertEquals(expected.size(), page.total());
+        assertEquals(expected, page.ids().stream().sorted().toList());
+        assertEquals(List.of(7L), index.search(new String[]{null, "seven"}, 0, 10).ids());
+        assertEquals(List.of(1999L), index.search(new String[]{"renamed", null}, 0, 10).ids());
+        assertEquals(501, index.size());
+    }
+}